@@ -0,0 +1,100 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and flag regressions.
+
+Usage:
+    scripts/jmh-compare.py BASELINE.json CANDIDATE.json [--threshold PCT]
+
+Produce the files with the jmh Maven profile, e.g.
+    mvn -Pjmh test-compile exec:exec -Djmh.result=baseline.json
+    (change the code)
+    mvn -Pjmh test-compile exec:exec -Djmh.result=candidate.json
+
+Benchmarks are matched on name and parameters. A benchmark regresses when its
+score moved in the bad direction (lower throughput, higher time) by more than
+the threshold AND the two confidence intervals do not overlap, so noisy
+benchmarks with wide error bars are reported but not failed.
+
+Exit status: 0 without regressions, 1 with at least one, 2 on bad input.
+"""
+
+import argparse
+import json
+import sys
+
+# Modes where a higher score is better; every other mode measures time
+HIGHER_IS_BETTER = {"thrpt"}
+
+
+def load(path):
+    try:
+        with open(path) as f:
+            runs = json.load(f)
+    except (OSError, ValueError) as e:
+        print(f"{path}: {e}", file=sys.stderr)
+        sys.exit(2)
+    results = {}
+    for run in runs:
+        params = run.get("params") or {}
+        key = run["benchmark"].rsplit(".", 2)[-2:]
+        key = ".".join(key) + "".join(f" {k}={v}" for k, v in sorted(params.items()))
+        metric = run["primaryMetric"]
+        error = metric.get("scoreError")
+        results[key] = {
+            "mode": run["mode"],
+            "score": metric["score"],
+            "error": error if isinstance(error, (int, float)) and error == error else 0.0,
+            "unit": metric["scoreUnit"],
+        }
+    return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("candidate")
+    parser.add_argument("--threshold", type=float, default=5.0,
+                        help="minimum change in percent to count as a regression (default 5)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    candidate = load(args.candidate)
+
+    rows = []
+    regressions = 0
+    for key in sorted(set(baseline) | set(candidate)):
+        old, new = baseline.get(key), candidate.get(key)
+        if old is None or new is None:
+            rows.append((key, "-" if old is None else f"{old['score']:.3f}",
+                         "-" if new is None else f"{new['score']:.3f}", "", "", "only in " +
+                         ("candidate" if old is None else "baseline")))
+            continue
+        if old["mode"] != new["mode"] or old["unit"] != new["unit"]:
+            rows.append((key, f"{old['score']:.3f}", f"{new['score']:.3f}", "", "", "mode/unit changed"))
+            continue
+
+        change = (new["score"] - old["score"]) / old["score"] * 100 if old["score"] else 0.0
+        worse = change < 0 if old["mode"] in HIGHER_IS_BETTER else change > 0
+        overlap = abs(new["score"] - old["score"]) <= old["error"] + new["error"]
+        if worse and abs(change) > args.threshold and not overlap:
+            verdict = "REGRESSION"
+            regressions += 1
+        elif worse and abs(change) > args.threshold:
+            verdict = "worse (within error)"
+        elif not worse and abs(change) > args.threshold and not overlap:
+            verdict = "improved"
+        else:
+            verdict = ""
+        rows.append((key, f"{old['score']:.3f} ± {old['error']:.3f}", f"{new['score']:.3f} ± {new['error']:.3f}",
+                     old["unit"], f"{change:+.1f}%", verdict))
+
+    headers = ("benchmark", "baseline", "candidate", "unit", "change", "")
+    widths = [max(len(str(row[i])) for row in rows + [headers]) for i in range(len(headers))]
+    for row in [headers] + rows:
+        print("  ".join(str(cell).ljust(width) for cell, width in zip(row, widths)).rstrip())
+
+    print(f"\n{regressions} regression(s) beyond {args.threshold:g}%")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,67 @@
+package rw.rra.vms.demo.Config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the old claim extraction path, which built a new parser and
+ * re-parsed the token for every claim, with the single {@link JwtUtil#verify(String)} parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private JwtUtil jwtUtil;
+    private Key key;
+    private String token;
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        key = jwtUtil.getSigningKey();
+        token = jwtUtil.createToken(Map.of("role", "ADMIN"), "admin@rra.gov.rw");
+        userDetails = new User("admin@rra.gov.rw", "", List.of());
+    }
+
+    /**
+     * The filter path before parse-once: extractUsername followed by validateToken,
+     * each claim lookup building its own parser.
+     */
+    @Benchmark
+    public void parserPerClaim(Blackhole blackhole) {
+        String username = legacyClaims(token).getSubject();
+        boolean valid = legacyClaims(token).getSubject().equals(userDetails.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+        blackhole.consume(username);
+        blackhole.consume(valid);
+    }
+
+    @Benchmark
+    public void verifyOnce(Blackhole blackhole) {
+        VerifiedToken verified = jwtUtil.verify(token);
+        blackhole.consume(jwtUtil.validateToken(verified, userDetails));
+    }
+
+    private Claims legacyClaims(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
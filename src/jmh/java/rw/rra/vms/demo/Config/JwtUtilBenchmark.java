@@ -0,0 +1,55 @@
+package rw.rra.vms.demo.Config;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import rw.rra.vms.demo.Entities.User;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and reading tokens with {@link JwtUtil}: HS256 signing on login, and the parse plus
+ * signature check that every authenticated request pays on a token cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        user = new User();
+        user.setId(42L);
+        user.setEmail("admin@rra.gov.rw");
+        user.setRole("ADMIN");
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return jwtUtil.createToken(Map.of("role", "ADMIN"), "admin@rra.gov.rw");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtUtil.verify(token);
+    }
+}
@@ -0,0 +1,157 @@
+package rw.rra.vms.demo.Config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import rw.rra.vms.demo.dtos.PlateNumberView;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The listing responses written through the message converters Spring MVC picks for each Accept header,
+ * optionally gzipped the way Tomcat compresses them. json is today's output. The time is the serialization
+ * (and compression) CPU per response; the bytes on the wire are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    /**
+     * ownerPage: a 100-owner {@code Page<VehicleOwnerDto>}; plates: the 20 plates of one owner.
+     */
+    @Param({"ownerPage", "plates"})
+    private String body;
+
+    @Param({"json", "columnar", "cbor", "smile"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    private AbstractHttpMessageConverter<Object> converter;
+    private MediaType mediaType;
+    private Object response;
+    private final Output output = new Output();
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same defaults as the ObjectMapper Spring Boot configures for MVC
+        ObjectMapper objectMapper = builder().build();
+        switch (format) {
+            case "json" -> {
+                converter = new MappingJackson2HttpMessageConverter(objectMapper);
+                mediaType = MediaType.APPLICATION_JSON;
+            }
+            case "columnar" -> {
+                converter = new ColumnarJsonHttpMessageConverter(objectMapper);
+                mediaType = ColumnarJsonHttpMessageConverter.COLUMNAR_JSON;
+            }
+            case "cbor" -> {
+                converter = new MappingJackson2CborHttpMessageConverter(builder().factory(new CBORFactory()).build());
+                mediaType = MediaType.APPLICATION_CBOR;
+            }
+            case "smile" -> {
+                converter = new MappingJackson2SmileHttpMessageConverter(builder().factory(new SmileFactory()).build());
+                mediaType = new MediaType("application", "x-jackson-smile");
+            }
+            default -> throw new IllegalArgumentException(format);
+        }
+        response = "plates".equals(body) ? plates(20) : new PageImpl<>(owners(100), PageRequest.of(3, 100), 10_000);
+
+        System.out.printf("%n%s %s %s: %d bytes%n", body, format, encoding, write());
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        output.reset();
+        if ("gzip".equals(encoding)) {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(output.bytes)) {
+                converter.write(response, mediaType, output.to(gzip));
+            }
+        } else {
+            converter.write(response, mediaType, output.to(output.bytes));
+        }
+        return output.bytes.size();
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<VehicleOwnerDto> owners(int count) {
+        List<VehicleOwnerDto> owners = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VehicleOwnerDto owner = new VehicleOwnerDto();
+            owner.setName("Owner " + i);
+            owner.setNationalId(String.format("1199880%09d", i));
+            owner.setPhone(String.format("07%08d", i));
+            owner.setAddress("KG 11 Ave, Kigali");
+            owner.setEmail("owner" + i + "@example.com");
+            owners.add(owner);
+        }
+        return owners;
+    }
+
+    private static List<PlateNumberView> plates(int count) {
+        List<PlateNumberView> plates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            plates.add(new PlateNumberView(String.format("RA%c%03d%c", 'A' + i % 26, i, 'A' + i % 7),
+                    LocalDate.of(2020, 1, 1).plusDays(37L * i), i % 3 != 0));
+        }
+        return plates;
+    }
+
+    /**
+     * A reusable response body, so the benchmark measures the converters rather than buffer growth.
+     */
+    private static final class Output implements HttpOutputMessage {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        private final HttpHeaders headers = new HttpHeaders();
+        private OutputStream body;
+
+        void reset() {
+            bytes.reset();
+            headers.clear();
+        }
+
+        Output to(OutputStream body) {
+            this.body = body;
+            return this;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package rw.rra.vms.demo.Controllers;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import rw.rra.vms.demo.EmbeddedApplication;
+import rw.rra.vms.demo.dtos.PlateNumberDto;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link OwnerController#registerOwner} and {@link OwnerController#registerPlate} with the
+ * default configuration and with the {@code perf} profile, against an embedded Postgres, both for new keys and
+ * for keys that are already registered (the duplicate rejection path).
+ * The controller is called directly, so the numbers cover the controller, JPA and JDBC path but not HTTP.
+ * <p>
+ * The score still climbs through a fork's measured iterations, and each fork starts its own database, hence three
+ * forks of ten iterations: with one fork of five, the error came out larger than the score. Only compare runs made
+ * with the same settings, and only cite a difference well above the errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 10, time = 5)
+@Threads(4)
+@Fork(3)
+public class RegistrationThroughputBenchmark {
+
+    private static final int SEEDED_OWNERS = 100;
+
+    @Param({"default", "perf"})
+    private String profile;
+
+    private EmbeddedApplication application;
+    private OwnerController controller;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = profile.equals("perf") ? EmbeddedApplication.start("perf") : EmbeddedApplication.start();
+        controller = application.getBean(OwnerController.class);
+        for (int n = 1; n <= SEEDED_OWNERS; n++) {
+            registerOwner(n);
+        }
+        for (int n = 1; n <= SEEDED_OWNERS; n++) {
+            registerPlate(n);
+        }
+        sequence.set(SEEDED_OWNERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> registerOwner() {
+        return registerOwner(sequence.incrementAndGet());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> registerDuplicateOwner() {
+        return registerOwner(randomSeeded());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> registerPlate() {
+        return registerPlate(sequence.incrementAndGet());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> registerDuplicatePlate() {
+        return registerPlate(randomSeeded());
+    }
+
+    private ResponseEntity<?> registerOwner(long n) {
+        VehicleOwnerDto owner = new VehicleOwnerDto();
+        owner.setName("Owner " + n);
+        owner.setNationalId(String.format("1199%012d", n));
+        owner.setPhone(String.format("07%08d", n));
+        owner.setAddress("Kigali");
+        owner.setEmail("owner" + n + "@bench.rw");
+        return controller.registerOwner(owner, new BeanPropertyBindingResult(owner, "ownerDto"));
+    }
+
+    private ResponseEntity<?> registerPlate(long n) {
+        PlateNumberDto plate = new PlateNumberDto();
+        plate.setPlateNumber(String.format("RB%08d", n));
+        plate.setIssuedDate(LocalDate.of(2024, 1, 1));
+        plate.setInUse(true);
+        return controller.registerPlate(1 + n % SEEDED_OWNERS, plate, new BeanPropertyBindingResult(plate, "plateNumberDto"));
+    }
+
+    // A sequence value whose owner and plate the setup registered
+    private static long randomSeeded() {
+        return 1 + ThreadLocalRandom.current().nextInt(SEEDED_OWNERS);
+    }
+}
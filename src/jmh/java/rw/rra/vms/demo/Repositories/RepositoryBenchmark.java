@@ -0,0 +1,120 @@
+package rw.rra.vms.demo.Repositories;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rw.rra.vms.demo.EmbeddedApplication;
+import rw.rra.vms.demo.Entities.PlateNumber;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.dtos.PlateNumberView;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the repository calls behind the owner and plate endpoints, through Spring Data and Hibernate
+ * against an embedded Postgres migrated by Flyway. Each call looks up a random existing row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param("20000")
+    private int owners;
+
+    private EmbeddedApplication application;
+    private VehicleOwnerRepository ownerRepository;
+    private PlateNumberRepository plateNumberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        application = EmbeddedApplication.start();
+        ownerRepository = application.getBean(VehicleOwnerRepository.class);
+        plateNumberRepository = application.getBean(PlateNumberRepository.class);
+
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into vehicle_owner (id, name, national_id, phone, address, email) " +
+                "select g, 'Owner ' || g, '1199' || lpad(g::text, 12, '0'), '07' || lpad(g::text, 8, '0'), " +
+                "'Kigali', 'owner' || g || '@bench.rw' from generate_series(1, ?) g", owners);
+        jdbcTemplate.update("insert into plate_number (owner_id, plate_number, issued_date, in_use) " +
+                "select (g % ?) + 1, 'RB' || lpad(g::text, 8, '0'), date '2024-01-01', g % 2 = 0 " +
+                "from generate_series(1, ?) g", owners, owners * 2);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        application.close();
+    }
+
+    @Benchmark
+    public Optional<VehicleOwner> findByNationalId() {
+        return ownerRepository.findByNationalId(String.format("1199%012d", randomOwnerId()));
+    }
+
+    @Benchmark
+    public Optional<VehicleOwner> findByPhone() {
+        return ownerRepository.findByPhone(String.format("07%08d", randomOwnerId()));
+    }
+
+    @Benchmark
+    public Optional<VehicleOwner> findByEmail() {
+        return ownerRepository.findByEmail("owner" + randomOwnerId() + "@bench.rw");
+    }
+
+    @Benchmark
+    public Optional<PlateNumber> findByPlateNumber() {
+        return plateNumberRepository.findByPlateNumber(String.format("RB%08d",
+                1 + ThreadLocalRandom.current().nextInt(owners * 2)));
+    }
+
+    @Benchmark
+    public List<PlateNumber> findByOwner() {
+        return plateNumberRepository.findByOwner(ownerRepository.getReferenceById(randomOwnerId()));
+    }
+
+    @Benchmark
+    public List<PlateNumberView> findViewsByOwnerId() {
+        return plateNumberRepository.findViewsByOwnerId(randomOwnerId());
+    }
+
+    /** The keyset listing behind {@code GET /api/owners?cursor=...}. */
+    @Benchmark
+    public Slice<VehicleOwner> findByIdGreaterThan() {
+        return ownerRepository.findByIdGreaterThan(randomOwnerId(),
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    /** The conditional GET check in front of {@link #findByIdGreaterThan()}. */
+    @Benchmark
+    public RowVersions findVersionsByIdGreaterThan() {
+        return ownerRepository.findVersionsByIdGreaterThan(randomOwnerId(), PAGE_SIZE + 1);
+    }
+
+    /** The conditional GET check in front of {@link #findViewsByOwnerId()}. */
+    @Benchmark
+    public RowVersions findVersionsByOwnerId() {
+        return plateNumberRepository.findVersionsByOwnerId(randomOwnerId());
+    }
+
+    /** The legacy offset listing behind {@code GET /api/owners?page=...}, including its count query. */
+    @Benchmark
+    public Page<VehicleOwner> findAllPage() {
+        return ownerRepository.findAll(PageRequest.of(ThreadLocalRandom.current().nextInt(owners / PAGE_SIZE), PAGE_SIZE));
+    }
+
+    private long randomOwnerId() {
+        return 1 + ThreadLocalRandom.current().nextInt(owners);
+    }
+}
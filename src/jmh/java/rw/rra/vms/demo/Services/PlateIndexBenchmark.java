@@ -0,0 +1,94 @@
+package rw.rra.vms.demo.Services;
+
+import org.openjdk.jmh.annotations.*;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Footprint and lookup cost of {@link PlateIndex.Table} at 10M plates: the size of the packed arrays is printed
+ * once per trial, and the probes show the per-lookup cost for registered and unregistered plates
+ * (including building the response record).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PlateIndexBenchmark {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final LocalDate ISSUED = LocalDate.of(2024, 1, 1);
+
+    @Param("10000000")
+    private int plates;
+
+    private PlateIndex.Table table;
+    private String[] present;
+    private long[] presentCodes;
+    private String[] absent;
+    private long[] absentCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Runtime runtime = Runtime.getRuntime();
+        table = new PlateIndex.Table(PlateIndex.Table.slotsFor(plates + plates / 4L, 0.75));
+        present = new String[1 << 16];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < plates; i++) {
+            String plate = randomPlate(random);
+            if (table.isFull(0.75)) {
+                table = table.resized(PlateIndex.Table.slotsFor(table.size() + table.size() / 2, 0.75));
+            }
+            table.put(PlateIndex.Table.encode(plate), 1 + random.nextInt(5_000_000), ISSUED, random.nextBoolean(), true);
+            if (i < present.length) {
+                present[i] = plate;
+            }
+        }
+        // A fixed 00000 prefix keeps these (almost surely) out of the generated set while still encodable
+        absent = new String[1 << 16];
+        absentCodes = new long[absent.length];
+        presentCodes = new long[present.length];
+        for (int i = 0; i < absent.length; i++) {
+            absent[i] = "00000" + randomPlate(random).substring(0, 5);
+            absentCodes[i] = PlateIndex.Table.encode(absent[i]);
+            presentCodes[i] = PlateIndex.Table.encode(present[i]);
+        }
+        System.gc();
+        System.out.printf("%nindex: %d plates in %d slots, %d MiB packed (%.1f bytes/plate); heap used %d MiB%n",
+                table.size(), table.capacity(), table.memoryBytes() >> 20, (double) table.memoryBytes() / table.size(),
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public PlateOwnerView lookupPresent() {
+        int i = ThreadLocalRandom.current().nextInt(present.length);
+        return table.get(presentCodes[i], present[i]);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public PlateOwnerView lookupAbsent() {
+        int i = ThreadLocalRandom.current().nextInt(absent.length);
+        return table.get(absentCodes[i], absent[i]);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public long encode() {
+        return PlateIndex.Table.encode(present[ThreadLocalRandom.current().nextInt(present.length)]);
+    }
+
+    private static String randomPlate(ThreadLocalRandom random) {
+        char[] plate = new char[5 + random.nextInt(6)];
+        for (int i = 0; i < plate.length; i++) {
+            plate[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(plate);
+    }
+}
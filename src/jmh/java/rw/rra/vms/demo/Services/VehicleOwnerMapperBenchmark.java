@@ -0,0 +1,45 @@
+package rw.rra.vms.demo.Services;
+
+import org.openjdk.jmh.annotations.*;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversions used by every owner endpoint ({@code OwnerController.toDto} / {@code toEntity}
+ * delegate to {@link VehicleOwnerMapper}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleOwnerMapperBenchmark {
+
+    private VehicleOwner owner;
+    private VehicleOwnerDto dto;
+
+    @Setup
+    public void setUp() {
+        owner = new VehicleOwner();
+        owner.setId(1L);
+        owner.setName("Jane Doe");
+        owner.setNationalId("1199880012345678");
+        owner.setPhone("0788000000");
+        owner.setAddress("KG 11 Ave, Kigali");
+        owner.setEmail("jane@example.com");
+        dto = VehicleOwnerMapper.toDto(owner);
+    }
+
+    @Benchmark
+    public VehicleOwnerDto toDto() {
+        return VehicleOwnerMapper.toDto(owner);
+    }
+
+    @Benchmark
+    public VehicleOwner toEntity() {
+        return VehicleOwnerMapper.toEntity(dto);
+    }
+}
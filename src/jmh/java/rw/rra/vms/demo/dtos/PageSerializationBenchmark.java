@@ -0,0 +1,67 @@
+package rw.rra.vms.demo.dtos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the owner listings: the legacy {@code Page<VehicleOwnerDto>} (with its pageable,
+ * sort and totals metadata) against the keyset {@link CursorPage}, for typical page sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private Page<VehicleOwnerDto> page;
+    private CursorPage<VehicleOwnerDto> cursorPage;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMapper Spring Boot configures for MVC
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+        List<VehicleOwnerDto> owners = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            VehicleOwnerDto owner = new VehicleOwnerDto();
+            owner.setName("Owner " + i);
+            owner.setNationalId(String.format("1199880%09d", i));
+            owner.setPhone(String.format("07%08d", i));
+            owner.setAddress("KG 11 Ave, Kigali");
+            owner.setEmail("owner" + i + "@example.com");
+            owners.add(owner);
+        }
+        page = new PageImpl<>(owners, PageRequest.of(3, size), 10_000);
+
+        cursorPage = new CursorPage<>();
+        cursorPage.setContent(owners);
+        cursorPage.setSize(size);
+        cursorPage.setHasNext(true);
+        cursorPage.setNextCursor(CursorPage.encodeCursor(4L * size));
+    }
+
+    @Benchmark
+    public byte[] page() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cursorPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(cursorPage);
+    }
+}
@@ -0,0 +1,111 @@
+package rw.rra.vms.demo.dtos;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of the request DTOs, which run their {@code @Pattern} and {@code @Email} checks on every
+ * registration, plate and signup. Invalid inputs add message interpolation for each violation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    private VehicleOwnerDto validOwner;
+    private VehicleOwnerDto invalidOwner;
+    private PlateNumberDto validPlate;
+    private PlateNumberDto invalidPlate;
+    private SignupRequest validSignup;
+    private SignupRequest invalidSignup;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validOwner = owner("Jane Doe", "1199880012345678", "0788000000", "jane@example.com");
+        invalidOwner = owner("", "11998800", "07880", "not-an-email");
+        validPlate = plate("RAB123C", LocalDate.of(2024, 1, 1));
+        invalidPlate = plate("rab-123", LocalDate.now().plusDays(1));
+        validSignup = signup("admin@rra.gov.rw", "1199880012345678", "0788000000", "password1", "ADMIN");
+        invalidSignup = signup("admin@", "1199", "0788", "short", "ROOT");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<VehicleOwnerDto>> validOwner() {
+        return validator.validate(validOwner);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<VehicleOwnerDto>> invalidOwner() {
+        return validator.validate(invalidOwner);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PlateNumberDto>> validPlate() {
+        return validator.validate(validPlate);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PlateNumberDto>> invalidPlate() {
+        return validator.validate(invalidPlate);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<SignupRequest>> validSignup() {
+        return validator.validate(validSignup);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<SignupRequest>> invalidSignup() {
+        return validator.validate(invalidSignup);
+    }
+
+    private static VehicleOwnerDto owner(String name, String nationalId, String phone, String email) {
+        VehicleOwnerDto owner = new VehicleOwnerDto();
+        owner.setName(name);
+        owner.setNationalId(nationalId);
+        owner.setPhone(phone);
+        owner.setAddress("Kigali");
+        owner.setEmail(email);
+        return owner;
+    }
+
+    private static PlateNumberDto plate(String plateNumber, LocalDate issuedDate) {
+        PlateNumberDto plate = new PlateNumberDto();
+        plate.setPlateNumber(plateNumber);
+        plate.setIssuedDate(issuedDate);
+        plate.setInUse(true);
+        return plate;
+    }
+
+    private static SignupRequest signup(String email, String nationalId, String phone, String password, String role) {
+        SignupRequest signup = new SignupRequest();
+        signup.setName("Admin");
+        signup.setEmail(email);
+        signup.setNationalId(nationalId);
+        signup.setPhone(phone);
+        signup.setPassword(password);
+        signup.setRole(role);
+        return signup;
+    }
+}
@@ -0,0 +1,535 @@
+package rw.rra.vms.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import rw.rra.vms.demo.DemoApplication;
+import rw.rra.vms.demo.dtos.CursorPage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays registration-office traffic against the application and reports throughput, latency percentiles,
+ * errors and status codes per endpoint.
+ * <p>
+ * Scenarios ({@code scenario=}):
+ * <ul>
+ *     <li>{@code login-storm}: a burst of {@code users} concurrent signups, then every client logging in as a
+ *     random user ({@code badPasswords} of them with a wrong password) and making one authenticated search
+ *     with the new token, the pattern seen when an office opens and every desk signs in at once.</li>
+ *     <li>{@code office-mix}: an authenticated mix of {@code GET /api/owners/search}, keyset pages of
+ *     {@code GET /api/owners}, {@code POST /api/owners} and {@code POST /api/owners/{id}/plate}, weighted by
+ *     {@code mix}. {@code duplicates} of the registrations reuse an existing national ID or plate and
+ *     {@code misses} of the searches look for an unknown owner; both are counted as expected responses.</li>
+ *     <li>{@code deep-paging}: clients walk {@code pages} consecutive pages of {@code GET /api/owners} from a
+ *     random position, with {@code page=} offsets, keyset cursors or both ({@code paging}). Results are split by
+ *     the quarter of the table the walk started in, so offset pages that slow down with depth stand out.</li>
+ * </ul>
+ * By default clients run closed-loop (the next request as soon as the previous completes). With {@code rate=}
+ * requests start on a fixed schedule instead, and latency is measured from the scheduled start, so queueing in
+ * an overloaded server is not hidden by clients that slow down with it.
+ * <p>
+ * Unless {@code url=} points at a running instance, the application runs in-process against an embedded
+ * Postgres, with {@code profiles=} activated. Data is seeded through the HTTP API.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.main=rw.rra.vms.demo.loadtest.ScenarioLoadTest
+ * -Dloadtest.args="scenario=office-mix clients=200 duration=60"}.
+ */
+public class ScenarioLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ADMIN_EMAIL = "loadtest@rra.gov.rw";
+    private static final String PASSWORD = "loadtest1";
+    private static final int SEED_CHUNK = 5000;
+
+    private final Map<String, String> options;
+    private final HttpClient http;
+    private final String baseUrl;
+    private final int owners;
+    private final AtomicLong sequence = new AtomicLong();
+    private String adminToken;
+
+    private ScenarioLoadTest(Map<String, String> options, HttpClient http, String baseUrl) {
+        this.options = options;
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.owners = intOption("owners", 5000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String url = options.get("url");
+        if (url != null) {
+            new ScenarioLoadTest(options, http, url).run();
+        } else {
+            try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().setServerConfig("max_connections", "200").start();
+                 ConfigurableApplicationContext context = startApplication(postgres, options)) {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                new ScenarioLoadTest(options, http, "http://localhost:" + port).run();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, Map<String, String> options) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        String profiles = options.getOrDefault("profiles", "");
+        if (!profiles.isBlank()) {
+            builder.profiles(profiles.split(","));
+        }
+        // Passed as command-line arguments so they override application.properties and the profiles
+        return builder.run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--jwt.stateless=true");
+    }
+
+    private void run() throws Exception {
+        String scenario = options.getOrDefault("scenario", "office-mix");
+        adminToken = signupAndLogin();
+        seedOwners();
+
+        Step step = switch (scenario) {
+            case "login-storm" -> loginStorm();
+            case "office-mix" -> officeMix();
+            case "deep-paging" -> deepPaging();
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario
+                    + " (expected login-storm, office-mix or deep-paging)");
+        };
+
+        int durationSeconds = intOption("duration", 30);
+        int warmupSeconds = intOption("warmup", 10);
+        int rate = intOption("rate", 0);
+        Recorder recorder = rate > 0
+                ? openLoop(step, rate, durationSeconds, warmupSeconds)
+                : closedLoop(step, intOption("clients", 200), durationSeconds, warmupSeconds);
+        recorder.print(scenario + (rate > 0 ? ", " + rate + " req/s scheduled" : ", " + intOption("clients", 200)
+                + " clients") + ", " + durationSeconds + " s", durationSeconds);
+    }
+
+    // ---- scenarios
+
+    private Step loginStorm() throws Exception {
+        int users = intOption("users", 200);
+        double badPasswords = doubleOption("badPasswords", 0.05);
+        boolean followUp = Boolean.parseBoolean(options.getOrDefault("followUp", "true"));
+
+        // The signup burst is reported on its own, over however long it took
+        Recorder signups = new Recorder(Long.MIN_VALUE);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore concurrency = new Semaphore(intOption("clients", 200));
+            for (int u = 1; u <= users; u++) {
+                int user = u;
+                concurrency.acquire();
+                executor.submit(() -> {
+                    try {
+                        call(signups, new Session(), "POST /api/auth/signup", 200,
+                                post("/api/auth/signup", null, "application/json", signupBody(user)));
+                    } finally {
+                        concurrency.release();
+                    }
+                });
+            }
+        }
+        signups.print("signup burst, " + users + " users", (System.nanoTime() - start) / 1e9);
+
+        return (recorder, session, random) -> {
+            int user = 1 + random.nextInt(users);
+            boolean bad = random.nextDouble() < badPasswords;
+            String body = "{\"email\":\"" + userEmail(user) + "\",\"password\":\"" + (bad ? "wrong-password" : PASSWORD) + "\"}";
+            HttpResponse<String> login = call(recorder, session, "POST /api/auth/login", bad ? 400 : 200,
+                    post("/api/auth/login", null, "application/json", body));
+            if (followUp && !bad && login != null && login.statusCode() == 200) {
+                String token = MAPPER.readTree(login.body()).get("token").asText();
+                call(recorder, session, "GET /api/owners/search (after login)", 200,
+                        get("/api/owners/search?nationalId=" + nationalId(1 + random.nextInt(owners)), token));
+            }
+        };
+    }
+
+    private Step officeMix() throws Exception {
+        seedPlates();
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : options.getOrDefault("mix", "search:50,list:30,owner:10,plate:10").split(",")) {
+            String[] pair = entry.split(":");
+            weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        double duplicates = doubleOption("duplicates", 0.05);
+        double misses = doubleOption("misses", 0.1);
+
+        return (recorder, session, random) -> {
+            int pick = random.nextInt(totalWeight);
+            String operation = null;
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    operation = weight.getKey();
+                    break;
+                }
+            }
+            int owner = 1 + random.nextInt(owners);
+            switch (operation) {
+                case "search" -> {
+                    boolean miss = random.nextDouble() < misses;
+                    String query = random.nextBoolean()
+                            ? "nationalId=" + (miss ? nationalId(owners + 1 + random.nextInt(1_000_000)) : nationalId(owner))
+                            : "phone=" + (miss ? "0600000000" : phone(owner));
+                    call(recorder, session, "GET /api/owners/search", miss ? 404 : 200,
+                            get("/api/owners/search?" + query, adminToken));
+                }
+                case "list" -> call(recorder, session, "GET /api/owners?cursor", 200,
+                        get("/api/owners?size=20&cursor=" + CursorPage.encodeCursor(owner - 1), adminToken));
+                case "owner" -> {
+                    boolean duplicate = random.nextDouble() < duplicates;
+                    int number = duplicate ? owner : owners + (int) sequence.incrementAndGet();
+                    call(recorder, session, "POST /api/owners", duplicate ? 400 : 200,
+                            post("/api/owners", adminToken, "application/json", ownerJson(number)));
+                }
+                case "plate" -> {
+                    boolean duplicate = random.nextDouble() < duplicates;
+                    String plate = duplicate ? seededPlate(owner) : String.format("RB%07d", sequence.incrementAndGet());
+                    call(recorder, session, "POST /api/owners/{id}/plate", duplicate ? 400 : 200,
+                            post("/api/owners/" + owner + "/plate", adminToken, "application/json",
+                                    "{\"plateNumber\":\"" + plate + "\",\"issuedDate\":\"2024-01-01\",\"inUse\":true}"));
+                }
+                default -> throw new IllegalArgumentException("Unknown operation " + operation
+                        + " in mix (expected search, list, owner or plate)");
+            }
+        };
+    }
+
+    private Step deepPaging() {
+        int size = intOption("size", 20);
+        int pages = intOption("pages", 10);
+        List<String> modes = List.of(options.getOrDefault("paging", "offset,cursor").split(","));
+        int lastPage = Math.max(0, owners / size - pages);
+
+        return (recorder, session, random) -> {
+            String mode = modes.get(random.nextInt(modes.size()));
+            int page = random.nextInt(lastPage + 1);
+            String label = "GET /api/owners?" + ("cursor".equals(mode) ? "cursor" : "page")
+                    + " q" + (1 + Math.min(3, 4 * page / (lastPage + 1)));
+            String cursor = CursorPage.encodeCursor((long) page * size);
+            for (int i = 0; i < pages; i++) {
+                if ("cursor".equals(mode)) {
+                    HttpResponse<String> response = call(recorder, session, label, 200,
+                            get("/api/owners?size=" + size + "&cursor=" + cursor, adminToken));
+                    JsonNode next = response == null || response.statusCode() != 200
+                            ? null : MAPPER.readTree(response.body()).get("nextCursor");
+                    if (next == null || next.isNull()) {
+                        return;
+                    }
+                    cursor = next.asText();
+                } else {
+                    call(recorder, session, label, 200, get("/api/owners?size=" + size + "&page=" + (page + i), adminToken));
+                }
+            }
+        };
+    }
+
+    // ---- load generation
+
+    private Recorder closedLoop(Step step, int clients, int durationSeconds, int warmupSeconds) {
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+        Recorder recorder = new Recorder(measureFrom);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        runStep(step, recorder, new Session(), random);
+                    }
+                });
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Starts steps on a fixed schedule regardless of how many are still in flight. Each step's first request is
+     * timed from its scheduled start, which accounts for the wait a real caller would have seen.
+     */
+    private Recorder openLoop(Step step, int rate, int durationSeconds, int warmupSeconds) {
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+        Recorder recorder = new Recorder(measureFrom);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * 1_000_000_000L / rate;
+                if (scheduled >= deadline) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> runStep(step, recorder, new Session(scheduled), ThreadLocalRandom.current()));
+            }
+        }
+        return recorder;
+    }
+
+    private static void runStep(Step step, Recorder recorder, Session session, ThreadLocalRandom random) {
+        try {
+            step.run(recorder, session, random);
+        } catch (Exception ex) {
+            recorder.failure(ex);
+        }
+    }
+
+    /**
+     * Sends the request and records it under {@code endpoint}; a status other than {@code expectedStatus} counts
+     * as an error. Returns null when the request itself failed.
+     */
+    private HttpResponse<String> call(Recorder recorder, Session session, String endpoint, int expectedStatus,
+                                      HttpRequest request) {
+        long start = session.start();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception ex) {
+            response = null;
+        }
+        recorder.record(endpoint, response == null ? 0 : response.statusCode(), expectedStatus, start, System.nanoTime());
+        return response;
+    }
+
+    // ---- seeding
+
+    private String signupAndLogin() throws Exception {
+        send(post("/api/auth/signup", null, "application/json", "{\"name\":\"Load Test\",\"email\":\"" + ADMIN_EMAIL
+                + "\",\"phone\":\"0788000000\",\"nationalId\":\"1199880000000000\",\"password\":\"" + PASSWORD
+                + "\",\"role\":\"ADMIN\"}"));
+        HttpResponse<String> login = send(post("/api/auth/login", null, "application/json",
+                "{\"email\":\"" + ADMIN_EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Admin login failed: " + login.statusCode() + " " + login.body());
+        }
+        return MAPPER.readTree(login.body()).get("token").asText();
+    }
+
+    private void seedOwners() throws Exception {
+        for (int from = 1; from <= owners; from += SEED_CHUNK) {
+            StringBuilder rows = new StringBuilder();
+            for (int i = from; i < Math.min(owners + 1, from + SEED_CHUNK); i++) {
+                rows.append(ownerJson(i)).append('\n');
+            }
+            send(post("/api/owners/bulk", adminToken, "application/x-ndjson", rows.toString()));
+        }
+    }
+
+    // One plate per owner, so duplicate plate registrations have something to collide with
+    private void seedPlates() throws Exception {
+        Semaphore concurrency = new Semaphore(32);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int owner = 1; owner <= owners; owner++) {
+                int id = owner;
+                concurrency.acquire();
+                executor.submit(() -> {
+                    try {
+                        return send(post("/api/owners/" + id + "/plate", adminToken, "application/json",
+                                "{\"plateNumber\":\"" + seededPlate(id) + "\",\"issuedDate\":\"2024-01-01\",\"inUse\":true}"));
+                    } finally {
+                        concurrency.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private static String ownerJson(int i) {
+        return String.format("{\"name\":\"Owner %d\",\"nationalId\":\"%s\",\"phone\":\"%s\",\"address\":\"Kigali\","
+                + "\"email\":\"owner%d@loadtest.rw\"}", i, nationalId(i), phone(i), i);
+    }
+
+    // ADMIN, since every API outside /api/auth requires it
+    private static String signupBody(int user) {
+        return String.format("{\"name\":\"Clerk %d\",\"email\":\"%s\",\"phone\":\"07%08d\",\"nationalId\":\"1199770%09d\","
+                + "\"password\":\"%s\",\"role\":\"ADMIN\"}", user, userEmail(user), 50_000_000 + user, user, PASSWORD);
+    }
+
+    private static String userEmail(int user) {
+        return "clerk" + user + "@loadtest.rw";
+    }
+
+    private static String nationalId(int owner) {
+        return String.format("1199880%09d", owner);
+    }
+
+    private static String phone(int owner) {
+        return String.format("07%08d", owner);
+    }
+
+    private static String seededPlate(int owner) {
+        return String.format("RA%07d", owner);
+    }
+
+    // ---- HTTP helpers
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String token, String contentType, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", contentType)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(Recorder recorder, Session session, ThreadLocalRandom random) throws Exception;
+    }
+
+    /** Start time for the first request of a step: its scheduled start in open-loop mode, otherwise now. */
+    private static final class Session {
+        private long scheduled = Long.MIN_VALUE;
+
+        Session() {
+        }
+
+        Session(long scheduled) {
+            this.scheduled = scheduled;
+        }
+
+        long start() {
+            long start = scheduled != Long.MIN_VALUE ? scheduled : System.nanoTime();
+            scheduled = Long.MIN_VALUE;
+            return start;
+        }
+    }
+
+    private static final class Recorder {
+        private final long measureFrom;
+        private final Map<String, Stats> endpoints = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        Recorder(long measureFrom) {
+            this.measureFrom = measureFrom;
+        }
+
+        void record(String endpoint, int status, int expectedStatus, long start, long end) {
+            if (start < measureFrom) {
+                return;
+            }
+            endpoints.computeIfAbsent(endpoint, key -> new Stats()).add(status, status == expectedStatus, end - start);
+        }
+
+        void failure(Exception ex) {
+            failures.computeIfAbsent(ex.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        }
+
+        void print(String title, double seconds) {
+            System.out.printf("%n== %s%n%-40s %8s %8s %7s %8s %8s %8s %9s %9s  %s%n", title,
+                    "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+            endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+                Stats stats = entry.getValue();
+                long[] latencies = stats.sorted();
+                System.out.printf("%-40s %8d %8.1f %6.2f%% %8.1f %8.1f %8.1f %9.1f %9.1f  %s%n",
+                        entry.getKey(), latencies.length, latencies.length / seconds,
+                        latencies.length == 0 ? 0.0 : 100.0 * stats.errors.sum() / latencies.length,
+                        percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                        percentile(latencies, 0.999), percentile(latencies, 1.0), stats.statuses());
+            });
+            failures.forEach((type, count) -> System.out.printf("step failures: %d x %s%n", count.sum(), type));
+        }
+
+        private static double percentile(long[] latencies, double p) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final LongAdder errors = new LongAdder();
+        // Status 0 is a request that got no response (connect failure or timeout)
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void add(int status, boolean expected, long latency) {
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (!expected) {
+                errors.increment();
+            }
+            synchronized (this) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        String statuses() {
+            StringJoiner joiner = new StringJoiner(" ");
+            new TreeMap<>(statuses).forEach((status, count) -> joiner.add(status + "=" + count.sum()));
+            return joiner.toString();
+        }
+    }
+}
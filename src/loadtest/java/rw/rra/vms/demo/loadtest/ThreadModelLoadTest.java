@@ -0,0 +1,269 @@
+package rw.rra.vms.demo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import rw.rra.vms.demo.DemoApplication;
+import rw.rra.vms.demo.dtos.CursorPage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the platform-thread Tomcat pool with the {@code virtual-threads} profile under the same load.
+ * <p>
+ * Each mode gets a fresh database in one embedded Postgres and its own in-process application, is seeded with
+ * owners and plates, and is then driven by {@code clients} concurrent closed-loop clients issuing the two
+ * JDBC-bound reads ({@code GET /api/owners/{id}/plates} and a keyset page of {@code GET /api/owners}).
+ * Throughput and latency percentiles are reported per mode, along with the {@code jdk.VirtualThreadPinned}
+ * events recorded while the mode ran, grouped by the first application or library frame.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="clients=1000 duration=30"}.
+ */
+public class ThreadModelLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int owners = Integer.parseInt(options.getOrDefault("owners", "2000"));
+        int poolSize = Integer.parseInt(options.getOrDefault("pool", "20"));
+        List<String> modes = List.of(options.getOrDefault("modes", "platform,virtual").split(","));
+
+        List<Result> results = new ArrayList<>();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .start()) {
+            for (String mode : modes) {
+                results.add(runMode(postgres, mode, clients, durationSeconds, warmupSeconds, owners, poolSize));
+            }
+        }
+
+        System.out.printf("%n%-9s %8s %9s %7s %9s %9s %9s %9s%n",
+                "mode", "clients", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+        for (Result result : results) {
+            System.out.printf("%-9s %8d %9d %7d %9.0f %9.1f %9.1f %9.1f%n",
+                    result.mode, clients, result.latencies.length, result.errors, result.throughput,
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(0.999));
+        }
+        for (Result result : results) {
+            System.out.printf("%npinned virtual threads (%s): %d%n", result.mode, result.pinnedTotal);
+            result.pinnedBySite.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(10)
+                    .forEach(entry -> System.out.printf("  %6d  %s%n", entry.getValue(), entry.getKey()));
+        }
+        System.exit(0);
+    }
+
+    private static Result runMode(EmbeddedPostgres postgres, String mode, int clients, int durationSeconds,
+                                  int warmupSeconds, int owners, int poolSize) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        String database = "loadtest_" + mode;
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + database);
+            statement.execute("CREATE DATABASE " + database);
+        }
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", database));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("jwt.stateless", "true");
+        // Same pool for both modes so only the thread model differs
+        properties.put("spring.datasource.hikari.maximum-pool-size", String.valueOf(poolSize));
+        properties.put("spring.datasource.hikari.minimum-idle", String.valueOf(poolSize));
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        if (virtual) {
+            builder.profiles("virtual-threads");
+        }
+        // Passed as command-line arguments so they override application.properties and the profile
+        String[] arguments = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        try (ConfigurableApplicationContext context = builder.run(arguments);
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = seed(http, baseUrl, owners);
+
+            Map<String, Long> pinnedBySite = new ConcurrentHashMap<>();
+            LongAdder pinnedTotal = new LongAdder();
+            try (RecordingStream recording = new RecordingStream()) {
+                recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+                recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                    pinnedTotal.increment();
+                    pinnedBySite.merge(pinnedSite(event.getStackTrace() == null
+                            ? List.of() : event.getStackTrace().getFrames()), 1L, Long::sum);
+                });
+                recording.startAsync();
+
+                Result result = drive(http, baseUrl, token, owners, clients, durationSeconds, warmupSeconds);
+                result.mode = mode;
+                recording.stop();
+                result.pinnedTotal = pinnedTotal.sum();
+                result.pinnedBySite = pinnedBySite;
+                return result;
+            }
+        }
+    }
+
+    private static String seed(HttpClient http, String baseUrl, int owners) throws Exception {
+        String signup = "{\"name\":\"Load Test\",\"email\":\"loadtest@rra.gov.rw\",\"phone\":\"0788000000\","
+                + "\"nationalId\":\"1199880000000000\",\"password\":\"loadtest1\",\"role\":\"ADMIN\"}";
+        send(http, post(baseUrl + "/api/auth/signup", null, "application/json", signup));
+        HttpResponse<String> login = send(http, post(baseUrl + "/api/auth/login", null, "application/json",
+                "{\"email\":\"loadtest@rra.gov.rw\",\"password\":\"loadtest1\"}"));
+        String token = MAPPER.readTree(login.body()).get("token").asText();
+
+        StringBuilder rows = new StringBuilder();
+        for (int i = 1; i <= owners; i++) {
+            rows.append(String.format("{\"name\":\"Owner %d\",\"nationalId\":\"1199880%09d\",\"phone\":\"07%08d\","
+                    + "\"address\":\"Kigali\",\"email\":\"owner%d@loadtest.rw\"}%n", i, i, i, i));
+        }
+        send(http, post(baseUrl + "/api/owners/bulk", token, "application/x-ndjson", rows.toString()));
+
+        for (long ownerId = 1; ownerId <= owners; ownerId++) {
+            for (int plate = 0; plate < 2; plate++) {
+                send(http, post(baseUrl + "/api/owners/" + ownerId + "/plate", token, "application/json",
+                        String.format("{\"plateNumber\":\"RA%06d%d\",\"issuedDate\":\"2024-01-01\",\"inUse\":true}",
+                                ownerId, plate)));
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Closed-loop load: every client sends its next request as soon as the previous one completes.
+     * Latencies of requests that start during the warmup are discarded.
+     */
+    private static Result drive(HttpClient http, String baseUrl, String token, int owners, int clients,
+                                int durationSeconds, int warmupSeconds) throws InterruptedException {
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+        long[][] latencies = new long[clients][];
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.nanoTime()) < deadline) {
+                        long ownerId = 1 + random.nextInt(owners);
+                        String path = random.nextBoolean()
+                                ? "/api/owners/" + ownerId + "/plates"
+                                : "/api/owners?size=20&cursor=" + CursorPage.encodeCursor(ownerId);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(60))
+                                .GET()
+                                .build();
+                        boolean ok;
+                        try {
+                            ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (Exception ex) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (now < measureFrom) {
+                            continue;
+                        }
+                        if (!ok) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = end - now;
+                    }
+                    latencies[client] = Arrays.copyOf(samples, count);
+                });
+            }
+        }
+
+        Result result = new Result();
+        result.latencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        result.errors = errors.get();
+        result.throughput = (double) result.latencies.length / durationSeconds;
+        return result;
+    }
+
+    // First frame outside the JDK, which is where the monitor was taken or the native call made
+    private static String pinnedSite(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return frames.isEmpty() ? "<no stack>" : "<jdk> " + frames.get(0).getMethod().getType().getName();
+    }
+
+    private static HttpRequest post(String url, String token, String contentType, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static HttpResponse<String> send(HttpClient http, HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static final class Result {
+        String mode;
+        long[] latencies;
+        long errors;
+        double throughput;
+        long pinnedTotal;
+        Map<String, Long> pinnedBySite;
+
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package rw.rra.vms.demo.Config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+import rw.rra.vms.demo.dtos.CursorPage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes lists of rows column by column, so each field name appears once per response rather than once per row:
+ * <pre>
+ * List         {"rows": 2, "columns": {"plateNumber": ["RAA001A", "RAB002B"], "inUse": [true, false]}}
+ * Page         the same, plus "page": {"number", "size", "totalElements", "totalPages"}
+ * CursorPage   the same, plus "hasNext", "nextCursor" and "totalElements" when present
+ * </pre>
+ * Columns are the row class's Jackson properties and values are written with the application's ObjectMapper,
+ * so a cell reads exactly as it does in the JSON output. Only used when the client asks for it by name:
+ * it never answers a wildcard Accept.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType COLUMNAR_JSON = new MediaType("application", "vnd.rra.columnar+json");
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, List<BeanPropertyDefinition>> properties = new ConcurrentHashMap<>();
+
+    public ColumnarJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(COLUMNAR_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || Page.class.isAssignableFrom(clazz) || CursorPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    // Without a media type Spring MVC is collecting what it could produce for a wildcard; leave that to JSON
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return mediaType != null && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response format only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            if (body instanceof Page<?> page) {
+                writeColumns(generator, page.getContent());
+                generator.writeObjectFieldStart("page");
+                generator.writeNumberField("number", page.getNumber());
+                generator.writeNumberField("size", page.getSize());
+                generator.writeNumberField("totalElements", page.getTotalElements());
+                generator.writeNumberField("totalPages", page.getTotalPages());
+                generator.writeEndObject();
+            } else if (body instanceof CursorPage<?> slice) {
+                writeColumns(generator, slice.getContent());
+                generator.writeBooleanField("hasNext", slice.isHasNext());
+                if (slice.getNextCursor() != null) {
+                    generator.writeStringField("nextCursor", slice.getNextCursor());
+                }
+                if (slice.getTotalElements() != null) {
+                    generator.writeNumberField("totalElements", slice.getTotalElements());
+                }
+            } else {
+                writeColumns(generator, (List<?>) body);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeColumns(JsonGenerator generator, List<?> rows) throws IOException {
+        generator.writeNumberField("rows", rows.size());
+        generator.writeObjectFieldStart("columns");
+        if (!rows.isEmpty()) {
+            for (BeanPropertyDefinition property : properties.computeIfAbsent(rows.get(0).getClass(), this::findProperties)) {
+                AnnotatedMember accessor = property.getAccessor();
+                generator.writeArrayFieldStart(property.getName());
+                for (Object row : rows) {
+                    writeValue(generator, accessor.getValue(row));
+                }
+                generator.writeEndArray();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private List<BeanPropertyDefinition> findProperties(Class<?> rowClass) {
+        return objectMapper.getSerializationConfig().introspect(objectMapper.constructType(rowClass))
+                .findProperties().stream()
+                .filter(property -> property.couldSerialize() && property.getAccessor() != null)
+                .toList();
+    }
+
+    // The common cell types directly; anything else (dates, nested objects) through the ObjectMapper
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String string) {
+            generator.writeString(string);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else {
+            generator.writeObject(value);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package rw.rra.vms.demo.Config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Ignores the flush the message converters issue after writing an owner or plate listing, so a listing that fits
+ * in Tomcat's response buffer is still there when the request ends and goes out with a Content-Length. Tomcat
+ * compresses every response whose length it does not know, so without this
+ * {@code server.compression.min-response-size} would never spare the small ones. Larger listings are sent as the
+ * buffer fills, as before. Streaming endpoints (export, batch search) are left alone: they flush on purpose.
+ */
+@Component
+public class DeferredFlushFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals("/api/owners") && !(path.startsWith("/api/owners/") && path.endsWith("/plates"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, new HttpServletResponseWrapper(response) {
+            private ServletOutputStream outputStream;
+
+            @Override
+            public ServletOutputStream getOutputStream() throws IOException {
+                if (outputStream == null) {
+                    outputStream = new NonFlushingOutputStream(super.getOutputStream());
+                }
+                return outputStream;
+            }
+
+            @Override
+            public void flushBuffer() {
+            }
+        });
+    }
+
+    private static final class NonFlushingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        NonFlushingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -1,28 +1,88 @@
 package rw.rra.vms.demo.Config;
 
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates bearer tokens. Publishes {@code auth.jwt.verify} (parse and signature check, by outcome),
+ * {@code auth.jwt.user.load} (user lookup when not stateless) and {@code auth.jwt.requests}
+ * (by result: cached, verified, invalid or revoked).
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final JwtTokenCache tokenCache;
+    private final TokenRevocationList revocationList;
+    private final boolean stateless;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Timer userLoad;
+    private final Counter cachedRequests;
+    private final Counter verifiedRequests;
+    private final Counter invalidRequests;
+    private final Counter revokedRequests;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   UserDetailsService userDetailsService,
+                                   JwtTokenCache tokenCache,
+                                   TokenRevocationList revocationList,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${jwt.stateless:false}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
+        this.stateless = stateless;
+
+        this.verifyValid = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalid = verifyTimer(meterRegistry, "invalid");
+        this.userLoad = Timer.builder("auth.jwt.user.load")
+                .description("Loading the user named by a token's subject")
+                .register(meterRegistry);
+        this.cachedRequests = requestCounter(meterRegistry, "cached");
+        this.verifiedRequests = requestCounter(meterRegistry, "verified");
+        this.invalidRequests = requestCounter(meterRegistry, "invalid");
+        this.revokedRequests = requestCounter(meterRegistry, "revoked");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Parsing a bearer token and checking its signature")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.jwt.requests")
+                .description("Requests carrying a bearer token, by how the token was resolved")
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @Override
@@ -31,24 +91,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                // Invalid token, you can log or handle this case as needed
-            }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authHeader.substring(7);
+            JwtTokenCache.CachedToken verified = verify(jwt);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (verified != null && revocationList.isRevoked(jwt, verified.token())) {
+                revokedRequests.increment();
+            } else if (verified != null) {
+                UserDetails userDetails = verified.userDetails();
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(userDetails, verified.token(), userDetails.getAuthorities());
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -58,4 +112,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolves a bearer token to its verified claims and user, parsing and loading only on a cache miss.
+     * The {@link VerifiedToken} is exposed to controllers as the authentication's credentials.
+     */
+    private JwtTokenCache.CachedToken verify(String jwt) {
+        JwtTokenCache.CachedToken cached = tokenCache.get(jwt);
+        if (cached != null) {
+            cachedRequests.increment();
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        VerifiedToken token;
+        try {
+            token = jwtUtil.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            verifyInvalid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            invalidRequests.increment();
+            return null;
+        }
+        verifyValid.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        try {
+            UserDetails userDetails = stateless
+                    ? fromClaims(token)
+                    : userLoad.record(() -> userDetailsService.loadUserByUsername(token.subject()));
+            if (!jwtUtil.validateToken(token, userDetails)) {
+                invalidRequests.increment();
+                return null;
+            }
+            verifiedRequests.increment();
+            return tokenCache.put(jwt, token, userDetails);
+        } catch (UsernameNotFoundException e) {
+            // Unknown user, leave the request unauthenticated
+            invalidRequests.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Builds the principal from the signed {@code sub} and {@code role} claims without touching the database.
+     * The role is granted as-is so it lines up with the {@code hasAuthority("ADMIN")} rule in {@link SecurityConfig}.
+     */
+    private UserDetails fromClaims(VerifiedToken token) {
+        List<GrantedAuthority> authorities = token.role() != null
+                ? List.of(new SimpleGrantedAuthority(token.role()))
+                : Collections.emptyList();
+        return User.withUsername(token.subject())
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
 }
@@ -0,0 +1,75 @@
+package rw.rra.vms.demo.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import rw.rra.vms.demo.Services.AuthenticatedUser;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bounded cache of bearer tokens that already passed signature verification,
+ * together with the {@link VerifiedToken} and user they resolved to.
+ * Entries expire with the token's own {@code exp} claim and are dropped when the user row changes.
+ */
+@Component
+public class JwtTokenCache {
+
+    private final Cache<String, CachedToken> tokens;
+
+    public JwtTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String token, CachedToken cached) -> cached.timeToLive()))
+                .build();
+    }
+
+    /**
+     * Returns the cached verification result for a token, or null if the token has not been seen or has expired.
+     */
+    public CachedToken get(String token) {
+        CachedToken cached = tokens.getIfPresent(token);
+        if (cached != null && cached.timeToLive().isZero()) {
+            tokens.invalidate(token);
+            return null;
+        }
+        return cached;
+    }
+
+    public CachedToken put(String token, VerifiedToken verifiedToken, UserDetails userDetails) {
+        CachedToken cached = new CachedToken(verifiedToken, userDetails);
+        tokens.put(token, cached);
+        return cached;
+    }
+
+    public void invalidate(String token) {
+        tokens.invalidate(token);
+    }
+
+    /**
+     * Drops every token that resolved to the given user, matching on the row id when available
+     * so that a changed email also evicts tokens issued for the old one.
+     */
+    public void invalidateUser(Long userId, String username) {
+        tokens.asMap().values().removeIf(cached -> cached.belongsTo(userId, username));
+    }
+
+    public record CachedToken(VerifiedToken token, UserDetails userDetails) {
+
+        Duration timeToLive() {
+            Duration remaining = Duration.between(Instant.now(), token.expiresAt());
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        }
+
+        boolean belongsTo(Long userId, String username) {
+            if (userId != null && userDetails instanceof AuthenticatedUser authenticatedUser) {
+                return userId.equals(authenticatedUser.getUserId());
+            }
+            return userDetails.getUsername().equals(username);
+        }
+    }
+}
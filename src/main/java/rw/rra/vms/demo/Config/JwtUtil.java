@@ -1,6 +1,7 @@
 package rw.rra.vms.demo.Config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -20,10 +21,21 @@ public class JwtUtil {
     private final Key secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
     private final long jwtExpirationMs = 86400000; // 24 hours
 
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private final JwtParser jwtParser = Jwts.parserBuilder()
+            .setSigningKey(secretKey)
+            .build();
+
+    /**
+     * Parses and verifies a token once, returning the claims the rest of the request works from.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.from(extractAllClaims(token));
+    }
+
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -62,11 +74,23 @@ public class JwtUtil {
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", user.getRole()); // Adds role to JWT payload
+        claims.put("uid", user.getId()); // Lets revocation follow the user across email changes
         return createToken(claims, user.getEmail()); // Use email instead of username
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    public Boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return (token.subject().equals(userDetails.getUsername()) && !token.isExpired());
+    }
+
+    public long getExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    Key getSigningKey() {
+        return secretKey;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package rw.rra.vms.demo.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, size-limited pool for password verification so BCrypt work during login storms
+ * cannot occupy the servlet threads that serve owner and plate requests.
+ * When every worker is busy and the queue is full, submissions are rejected instead of piling up.
+ * Pool activity is published as {@code executor.*} meters named {@code login}, rejections as {@code auth.login.rejected}.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejections;
+
+    public LoginExecutor(MeterRegistry meterRegistry,
+                         @Value("${auth.login.pool-size:0}") int poolSize,
+                         @Value("${auth.login.queue-capacity:64}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "login", Tags.empty()).bindTo(meterRegistry);
+        this.rejections = Counter.builder("auth.login.rejected")
+                .description("Logins rejected because the login pool and its queue were full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the task on the login pool, reading from the primary if the calling request has to
+     * (see {@link ReadYourWritesFilter}).
+     * @throws RejectedExecutionException if the pool and its queue are saturated.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(ReplicaRoutingDataSource.inheritReadFromPrimary(task), executor);
+        } catch (RejectedExecutionException ex) {
+            rejections.increment();
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,45 @@
+package rw.rra.vms.demo.Config;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.Services.OwnerLookupCache;
+
+/**
+ * JPA listener that keeps {@link OwnerLookupCache} in step with owner writes. The entries are evicted
+ * right away and again once the transaction completes, so a lookup that runs between the flush and the
+ * commit cannot leave the pre-commit state behind in the cache.
+ */
+@Component
+public class OwnerChangeListener {
+
+    private final ObjectProvider<OwnerLookupCache> ownerLookupCache;
+
+    public OwnerChangeListener(ObjectProvider<OwnerLookupCache> ownerLookupCache) {
+        this.ownerLookupCache = ownerLookupCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onOwnerChanged(VehicleOwner owner) {
+        OwnerLookupCache cache = ownerLookupCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        cache.evict(owner);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(owner);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package rw.rra.vms.demo.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Settings for the {@code perf} profile that cannot be expressed in application-perf.properties:
+ * the connection pool is sized from the available cores, and the effective pool, batching and
+ * statement-cache settings are published as {@code perf.*} gauges so a running instance shows what it uses.
+ */
+@Configuration
+@Profile("perf")
+public class PerformanceProfileConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceProfileConfig.class);
+
+    static final String POOL_SIZE_PROPERTY = "spring.datasource.hikari.maximum-pool-size";
+
+    /**
+     * Applies (2 x cores) + 1 connections, the HikariCP starting point for a pool whose queries mostly wait on
+     * the database, unless perf.datasource.pool-size or spring.datasource.hikari.maximum-pool-size is set.
+     * Static so the post-processor is registered before the data source is created.
+     */
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && !environment.containsProperty(POOL_SIZE_PROPERTY)) {
+                    int configured = environment.getProperty("perf.datasource.pool-size", Integer.class, 0);
+                    int poolSize = configured > 0 ? configured : Runtime.getRuntime().availableProcessors() * 2 + 1;
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                    logger.info("Sized connection pool {} to {} connections", dataSource.getPoolName(), poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Lets Hibernate skip the setAutoCommit(false)/setAutoCommit(true) pair around every transaction.
+     * Only safe when the pool really hands out connections with auto-commit off, so it is decided from the
+     * data source rather than set in the properties file.
+     */
+    @Bean
+    HibernatePropertiesCustomizer autoCommitCustomizer(DataSource dataSource) {
+        return properties -> {
+            HikariDataSource hikari = hikari(dataSource);
+            if (hikari != null && !hikari.isAutoCommit()) {
+                properties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, true);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder performanceSettingsMetrics(DataSource dataSource, Environment environment) {
+        return registry -> {
+            HikariDataSource hikari = hikari(dataSource);
+            if (hikari != null) {
+                Gauge.builder("perf.datasource.pool.max", hikari, HikariDataSource::getMaximumPoolSize)
+                        .description("Configured maximum connection pool size")
+                        .register(registry);
+                Gauge.builder("perf.datasource.pool.min-idle", hikari, HikariDataSource::getMinimumIdle)
+                        .description("Configured minimum idle connections")
+                        .register(registry);
+                Gauge.builder("perf.datasource.auto-commit", hikari, ds -> ds.isAutoCommit() ? 1 : 0)
+                        .description("1 when pooled connections start in auto-commit mode")
+                        .register(registry);
+                registerNumber(registry, "perf.jdbc.prepare-threshold",
+                        hikari.getDataSourceProperties().getProperty("prepareThreshold"),
+                        "PgJDBC executions before a statement is prepared server-side");
+                registerNumber(registry, "perf.jdbc.statement-cache.queries",
+                        hikari.getDataSourceProperties().getProperty("preparedStatementCacheQueries"),
+                        "PgJDBC prepared statements cached per connection");
+            }
+            registerNumber(registry, "perf.jdbc.batch-size",
+                    environment.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size"),
+                    "Hibernate JDBC batch size");
+            Gauge.builder("perf.jpa.show-sql", () -> environment.getProperty("spring.jpa.show-sql", Boolean.class, false) ? 1 : 0)
+                    .description("1 when SQL is echoed to stdout")
+                    .register(registry);
+        };
+    }
+
+    // The pool itself, or the primary's pool behind ReadReplicaConfig's routing proxy
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    private static void registerNumber(MeterRegistry registry, String name, String value, String description) {
+        if (value == null) {
+            return;
+        }
+        double number = Double.parseDouble(value);
+        Gauge.builder(name, () -> number).description(description).register(registry);
+    }
+}
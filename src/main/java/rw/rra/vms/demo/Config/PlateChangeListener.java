@@ -0,0 +1,54 @@
+package rw.rra.vms.demo.Config;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rw.rra.vms.demo.Entities.PlateNumber;
+import rw.rra.vms.demo.Services.PlateIndex;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+
+/**
+ * JPA listener that keeps {@link PlateIndex} current with this node's writes. The index answers lookups
+ * without the database when it has the plate, so it is only updated once the write has committed.
+ */
+@Component
+public class PlateChangeListener {
+
+    private final ObjectProvider<PlateIndex> plateIndex;
+
+    public PlateChangeListener(ObjectProvider<PlateIndex> plateIndex) {
+        this.plateIndex = plateIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onPlateChanged(PlateNumber plateNumber) {
+        // Copied now: the entity may be detached or changed again by the time the transaction commits
+        PlateOwnerView plate = new PlateOwnerView(plateNumber.getPlateNumber(), plateNumber.getOwner().getId(),
+                plateNumber.getIssuedDate(), plateNumber.isInUse());
+        afterCommit(() -> plateIndex.ifAvailable(index -> index.put(plate)));
+    }
+
+    @PostRemove
+    public void onPlateRemoved(PlateNumber plateNumber) {
+        String plate = plateNumber.getPlateNumber();
+        afterCommit(() -> plateIndex.ifAvailable(index -> index.remove(plate)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
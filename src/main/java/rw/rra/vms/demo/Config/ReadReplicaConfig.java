@@ -0,0 +1,79 @@
+package rw.rra.vms.demo.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in {@code datasource.replica.urls}. Without it the application
+ * keeps Spring Boot's single data source.
+ * <p>
+ * The application's data source then takes its connections lazily, at the first statement of a transaction, when it
+ * knows whether the transaction is read-only: read-only transactions ({@code @Transactional(readOnly = true)},
+ * read-only TransactionTemplates and Spring Data's finders) go to {@link ReplicaRoutingDataSource}, everything
+ * else to the primary. Flyway always migrates the primary.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    /**
+     * Built and configured as Spring Boot would build the only data source, from {@code spring.datasource.*}.
+     */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                     MeterRegistry meterRegistry,
+                                                     @Value("${datasource.replica.urls}") List<String> urls,
+                                                     @Value("${datasource.replica.pool-size:0}") int poolSize,
+                                                     @Value("${datasource.replica.connection-timeout:1s}") Duration connectionTimeout,
+                                                     @Value("${datasource.replica.max-lag:5s}") Duration maxLag,
+                                                     @Value("${datasource.replica.health-check-interval:5s}") Duration healthCheckInterval) {
+        return new ReplicaRoutingDataSource(primaryDataSource, urls, poolSize, connectionTimeout, maxLag,
+                healthCheckInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Applied by Spring Boot to the application task executor, which runs the streamed responses (export, batch
+     * search) of async requests, so they read from where the request would.
+     */
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator() {
+        return ReplicaRoutingDataSource::inheritReadFromPrimary;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${datasource.replica.read-your-writes:2s}") Duration window,
+                                                     @Value("${datasource.replica.read-your-writes-max-clients:100000}") long maxClients) {
+        return new ReadYourWritesFilter(window, maxClients);
+    }
+}
@@ -0,0 +1,69 @@
+package rw.rra.vms.demo.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Sends a client's read-only transactions to the primary for {@code datasource.replica.read-your-writes} after its
+ * last successful write, so a replica that has not replayed the change yet cannot hide it from the client that made
+ * it. A write is any request other than GET, HEAD or OPTIONS that did not fail. The client is the authenticated
+ * user, or the remote address before login, which covers a signup followed by its login. Work a request hands to
+ * another thread carries its flag along: the password check on the login pool (see {@link LoginExecutor}) and the
+ * streamed responses on the application task executor (see {@link ReadReplicaConfig#readYourWritesTaskDecorator}).
+ * Runs after Spring Security, which has resolved the user by then. A zero window turns it off.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window, long maxClients) {
+        this.enabled = !window.isZero();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = client(request);
+        ReplicaRoutingDataSource.setReadFromPrimary(recentWriters.getIfPresent(client) != null);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setReadFromPrimary(false);
+        }
+        if (!READ_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
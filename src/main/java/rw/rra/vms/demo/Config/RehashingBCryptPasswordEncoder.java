@@ -0,0 +1,64 @@
+package rw.rra.vms.demo.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt encoder whose work factor comes from configuration. Any stored hash with a different
+ * cost than the configured one is reported as needing an upgrade, so Spring Security rehashes it
+ * on the next successful login, whether the cost was raised or lowered.
+ * Hashing and verification are timed as {@code auth.bcrypt} (by operation), the CPU cost of a login.
+ */
+public class RehashingBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final int strength;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public RehashingBCryptPasswordEncoder(int strength, MeterRegistry meterRegistry) {
+        super(strength);
+        this.strength = strength;
+        this.encodeTimer = timer(meterRegistry, "encode", strength);
+        this.matchesTimer = timer(meterRegistry, "matches", strength);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation, int strength) {
+        return Timer.builder("auth.bcrypt")
+                .description("BCrypt password hashing and verification")
+                .tag("operation", operation)
+                .tag("strength", String.valueOf(strength))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> super.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // Timer.record(Supplier) would box the result; time it by hand instead
+        long start = System.nanoTime();
+        try {
+            return super.matches(rawPassword, encodedPassword);
+        } finally {
+            matchesTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            // $2a$10$... -> cost is the two digits after the version prefix
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package rw.rra.vms.demo.Config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The data source behind read-only transactions: hands out connections from the replica pools in turn and falls
+ * back to the primary when no replica is usable or the current request has to read its own writes
+ * (see {@link ReadYourWritesFilter}). A replica is skipped from the moment it fails to hand out a connection, or
+ * its last health check failed or found it more than {@code datasource.replica.max-lag} behind, until a health
+ * check passes again. Connections taken from the primary are set read-only, like the replicas'.
+ * <p>
+ * Each replica has its own Hikari pool, configured like the primary's but read-only, published as
+ * {@code hikaricp.*} under the pool name {@code replica-<n>}.
+ * Meters: {@code datasource.replica.healthy} and {@code datasource.replica.lag} tagged {@code pool}, and
+ * {@code datasource.replica.reads} tagged {@code target} (replica or primary).
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> readFromPrimary = new ThreadLocal<>();
+
+    // Replay lag in seconds; zero on a replica that has replayed everything it received, and on a non-replica
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_is_in_recovery() " +
+            "AND pg_last_wal_receive_lsn() IS DISTINCT FROM pg_last_wal_replay_lsn() " +
+            "THEN extract(epoch FROM now() - pg_last_xact_replay_timestamp()) ELSE 0 END";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    private ScheduledExecutorService healthChecks;
+
+    /**
+     * @param poolSize Connections per replica pool; 0 sizes them like the primary's.
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary,
+                                    List<String> urls,
+                                    int poolSize,
+                                    Duration connectionTimeout,
+                                    Duration maxLag,
+                                    Duration healthCheckInterval,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.healthCheckInterval = healthCheckInterval;
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setPoolName("replica-" + (i + 1));
+            config.setReadOnly(true);
+            if (poolSize > 0) {
+                config.setMaximumPoolSize(poolSize);
+                config.setMinimumIdle(Math.min(config.getMinimumIdle(), poolSize));
+            }
+            // A replica that is down costs a read this long before it falls back to the primary
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            // Start even when a replica is down; the health check picks it up once it is back
+            config.setInitializationFailTimeout(-1);
+            if (config.getMetricsTrackerFactory() == null) {
+                config.setMetricRegistry(meterRegistry);
+            }
+            Replica replica = new Replica(config.getPoolName(), new HikariDataSource(config));
+            replicas.add(replica);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 while the replica receives read-only transactions")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replay lag of the replica at its last health check")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+        }
+        this.replicaReads = reads(meterRegistry, "replica");
+        this.primaryReads = reads(meterRegistry, "primary");
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.replica.reads")
+                .description("Connections handed out for read-only transactions")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks every replica once before the application takes traffic, then every health-check interval.
+     */
+    @PostConstruct
+    public void start() {
+        checkReplicas();
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        healthChecks.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Makes read-only transactions on the current thread use the primary, until called with false.
+     */
+    static void setReadFromPrimary(boolean primary) {
+        if (primary) {
+            readFromPrimary.set(Boolean.TRUE);
+        } else {
+            readFromPrimary.remove();
+        }
+    }
+
+    /**
+     * Wraps a task handed to another thread on behalf of the current request, so its read-only transactions use
+     * the primary if the request's do.
+     */
+    static <T> Supplier<T> inheritReadFromPrimary(Supplier<T> task) {
+        boolean primary = readFromPrimary.get() != null;
+        return () -> {
+            setReadFromPrimary(primary);
+            try {
+                return task.get();
+            } finally {
+                setReadFromPrimary(false);
+            }
+        };
+    }
+
+    static Runnable inheritReadFromPrimary(Runnable task) {
+        Supplier<Void> wrapped = inheritReadFromPrimary(() -> {
+            task.run();
+            return null;
+        });
+        return wrapped::get;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readFromPrimary.get() == null) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.pool.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException ex) {
+                    replica.markUnhealthy(ex.getMessage());
+                }
+            }
+        }
+        Connection connection = primary.getConnection();
+        try {
+            connection.setReadOnly(true);
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+        primaryReads.increment();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the pools' own credentials");
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lag = resultSet.getDouble(1);
+                replica.lagSeconds = lag;
+                if (lag > maxLagSeconds) {
+                    replica.markUnhealthy(String.format("%.1fs behind the primary", lag));
+                } else {
+                    replica.markHealthy();
+                }
+            } catch (SQLException | RuntimeException ex) {
+                replica.markUnhealthy(ex.getMessage());
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        void markHealthy() {
+            if (!healthy) {
+                logger.info("Replica {} is usable, read-only transactions use it", name);
+            }
+            healthy = true;
+        }
+
+        void markUnhealthy(String reason) {
+            if (healthy) {
+                logger.warn("Replica {} is unusable, read-only transactions fall back to the primary: {}", name, reason);
+            }
+            healthy = false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package rw.rra.vms.demo.Config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Compact response encodings, chosen by the client through Accept: CBOR ({@code application/cbor}),
+ * Smile ({@code application/x-jackson-smile}) and columnar JSON ({@link ColumnarJsonHttpMessageConverter#COLUMNAR_JSON}).
+ * JSON stays the answer to {@code Accept: *}{@code /*} and to clients that send no Accept header.
+ */
+@Configuration
+public class ResponseEncodingConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public ResponseEncodingConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Built from Spring Boot's builder, so dates and other settings match the JSON output. Spring Boot puts these
+     * in place of Spring MVC's default CBOR and Smile converters, which come after JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Columnar JSON goes just before the JSON converter, which would otherwise claim it as application/*+json.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int json = 0;
+        while (json < converters.size() && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) {
+            json++;
+        }
+        converters.add(json, new ColumnarJsonHttpMessageConverter(objectMapper));
+    }
+}
@@ -1,7 +1,12 @@
 package rw.rra.vms.demo.Config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,15 +18,19 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 /**
  * Configures JWT security
- * Allows signup and login without auth, but all other endpoints require ROLE_ADMIN
+ * Allows signup, login, logout and health checks without auth, but all other endpoints require ROLE_ADMIN.
+ * Prometheus scrapes need no auth either when the actuator has its own port ({@code management.server.port}),
+ * which is kept off the public network; on the application's port they require ROLE_ADMIN like the other endpoints.
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final boolean separateManagementPort;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, Environment environment) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
     }
 
     @Bean
@@ -29,19 +38,27 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/login", "/api/auth/signup", "/error").permitAll()
-                        .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**").permitAll()
-                        .anyRequest().hasAuthority("ADMIN")
-                )
+                .authorizeHttpRequests(auth -> {
+                    // Async dispatches resume a request that was already authorized (streamed exports, async login)
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                            .requestMatchers("/api/auth/login", "/api/auth/signup", "/api/auth/logout", "/error").permitAll()
+                            .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**").permitAll()
+                            // Health checks and the Prometheus scraper do not carry user tokens
+                            .requestMatchers("/actuator/health/**").permitAll();
+                    if (separateManagementPort) {
+                        auth.requestMatchers("/actuator/prometheus").permitAll();
+                    }
+                    auth.anyRequest().hasAuthority("ADMIN");
+                })
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength,
+                                                 MeterRegistry meterRegistry) {
+        return new RehashingBCryptPasswordEncoder(strength, meterRegistry);
     }
 
     @Bean
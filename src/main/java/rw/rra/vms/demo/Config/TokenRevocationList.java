@@ -0,0 +1,71 @@
+package rw.rra.vms.demo.Config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Short-lived denylist for tokens that are still signed and unexpired but must no longer be accepted.
+ * Single tokens (logout) are remembered until their own expiry; whole users (deleted or changed rows)
+ * are remembered for one token lifetime, after which every token issued before the revocation has expired anyway.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final Cache<String, Instant> revokedTokens;
+    private final Cache<String, Instant> revokedUsers;
+
+    public TokenRevocationList(JwtUtil jwtUtil,
+                               @Value("${jwt.revocation.max-size:100000}") long maxSize) {
+        this.revokedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String token, Instant expiresAt) -> {
+                    Duration remaining = Duration.between(Instant.now(), expiresAt);
+                    return remaining.isNegative() ? Duration.ZERO : remaining;
+                }))
+                .build();
+        this.revokedUsers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(jwtUtil.getExpirationMs()))
+                .build();
+    }
+
+    public void revoke(String token, VerifiedToken verified) {
+        revokedTokens.put(token, verified.expiresAt());
+    }
+
+    /**
+     * Revokes every token issued to the user up to now. Tokens carry their issue time in whole seconds, so the
+     * revocation time is kept in whole seconds too, and a token issued in the same second as the revocation is
+     * treated as revoked: it may have been issued before it.
+     */
+    public void revokeUser(Long userId, String subject) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        if (userId != null) {
+            revokedUsers.put("uid:" + userId, now);
+        }
+        if (subject != null) {
+            revokedUsers.put("sub:" + subject, now);
+        }
+    }
+
+    public boolean isRevoked(String token, VerifiedToken verified) {
+        if (revokedTokens.getIfPresent(token) != null) {
+            return true;
+        }
+        return issuedBefore(revokedUsers.getIfPresent("sub:" + verified.subject()), verified)
+                || (verified.userId() != null
+                && issuedBefore(revokedUsers.getIfPresent("uid:" + verified.userId()), verified));
+    }
+
+    // Issued in or before the second of the revocation
+    private boolean issuedBefore(Instant revokedAt, VerifiedToken verified) {
+        return revokedAt != null && (verified.issuedAt() == null || !verified.issuedAt().isAfter(revokedAt));
+    }
+}
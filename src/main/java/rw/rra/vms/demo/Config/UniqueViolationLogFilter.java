@@ -0,0 +1,51 @@
+package rw.rra.vms.demo.Config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Drops the WARN and ERROR pair Hibernate's SqlExceptionHelper logs for every unique violation (SQLState 23505).
+ * Registrations insert and let the unique constraints reject duplicates, which the controllers answer with a 400,
+ * so each duplicate registration would otherwise log an error. Other SQL errors are logged as before.
+ * <p>
+ * For each exception of a chain (a failed batch and the statement behind it) the helper logs the SQLState in a WARN,
+ * left out when it repeats the one before, and the driver's message, without the state, in an ERROR. So on each
+ * thread the ERRORs after a suppressed WARN are suppressed too, up to the next WARN or the end of the helper's call.
+ * The end is seen at the start of its next call, which checks whether DEBUG is enabled before logging anything (the
+ * checks within a chain are only for WARN and ERROR), so an ERROR of a later call is never dropped for an earlier
+ * unique violation. Registered in logback-spring.xml.
+ */
+public class UniqueViolationLogFilter extends TurboFilter {
+
+    private static final String SQL_EXCEPTION_HELPER = "org.hibernate.engine.jdbc.spi.SqlExceptionHelper";
+    private static final String UNIQUE_VIOLATION = "SQLState: 23505";
+
+    private static final ThreadLocal<Boolean> suppressErrors = new ThreadLocal<>();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!SQL_EXCEPTION_HELPER.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // No format: a level check, which must stay answered by the configured levels
+        if (format == null) {
+            if (level == Level.DEBUG) {
+                suppressErrors.remove();
+            }
+            return FilterReply.NEUTRAL;
+        }
+        if (level == Level.WARN) {
+            if (format.endsWith(UNIQUE_VIOLATION)) {
+                suppressErrors.set(Boolean.TRUE);
+                return FilterReply.DENY;
+            }
+            suppressErrors.remove();
+        } else if (level == Level.ERROR && suppressErrors.get() != null) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,44 @@
+package rw.rra.vms.demo.Config;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rw.rra.vms.demo.Entities.User;
+
+/**
+ * JPA listener that evicts cached tokens whenever a user row is updated or deleted,
+ * so role or credential changes take effect on the next request.
+ * In stateless mode the role travels inside the token, so the user's existing tokens are revoked as well.
+ * Collaborators are looked up lazily because Hibernate creates listeners while the EntityManagerFactory is built.
+ */
+@Component
+public class UserChangeListener {
+
+    private final ObjectProvider<JwtTokenCache> tokenCache;
+    private final ObjectProvider<TokenRevocationList> revocationList;
+    private final boolean stateless;
+
+    public UserChangeListener(ObjectProvider<JwtTokenCache> tokenCache,
+                              ObjectProvider<TokenRevocationList> revocationList,
+                              @Value("${jwt.stateless:false}") boolean stateless) {
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
+        this.stateless = stateless;
+    }
+
+    @PostUpdate
+    public void onUserUpdated(User user) {
+        tokenCache.ifAvailable(cache -> cache.invalidateUser(user.getId(), user.getEmail()));
+        if (stateless) {
+            revocationList.ifAvailable(revocations -> revocations.revokeUser(user.getId(), user.getEmail()));
+        }
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        tokenCache.ifAvailable(cache -> cache.invalidateUser(user.getId(), user.getEmail()));
+        revocationList.ifAvailable(revocations -> revocations.revokeUser(user.getId(), user.getEmail()));
+    }
+}
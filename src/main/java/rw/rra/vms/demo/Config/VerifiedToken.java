@@ -0,0 +1,34 @@
+package rw.rra.vms.demo.Config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.MissingClaimException;
+
+import java.time.Instant;
+
+/**
+ * Claims of a bearer token whose signature and expiry have been checked once by {@link JwtUtil#verify(String)}.
+ * Downstream code reads the subject and role from here instead of parsing the token again.
+ */
+public record VerifiedToken(String subject, Long userId, String role, Instant issuedAt, Instant expiresAt) {
+
+    /**
+     * @throws MissingClaimException if the token has no expiry: every token is issued with one, and the parser only
+     * checks the expiry of tokens that have it.
+     */
+    static VerifiedToken from(Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new MissingClaimException(null, claims, "Token has no expiration");
+        }
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("uid", Long.class),
+                claims.get("role", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
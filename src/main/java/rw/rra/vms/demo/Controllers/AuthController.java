@@ -6,29 +6,40 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.validation.BindingResult;
-import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
 import rw.rra.vms.demo.dtos.LoginRequest;
 import rw.rra.vms.demo.dtos.LoginResponse;
 import rw.rra.vms.demo.dtos.SignupRequest;
 import rw.rra.vms.demo.dtos.SignupResponse;
 import rw.rra.vms.demo.Entities.User;
+import rw.rra.vms.demo.Config.JwtTokenCache;
+import rw.rra.vms.demo.Config.LoginExecutor;
 import rw.rra.vms.demo.Config.JwtUtil;
+import rw.rra.vms.demo.Config.TokenRevocationList;
+import rw.rra.vms.demo.Config.VerifiedToken;
 import rw.rra.vms.demo.Repositories.UserRepository;
+import rw.rra.vms.demo.Services.AuditLog;
+import rw.rra.vms.demo.Services.AuthenticatedUser;
+import rw.rra.vms.demo.Services.ConstraintViolations;
+import rw.rra.vms.demo.Services.RegistrationMetrics;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -49,6 +60,21 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private LoginExecutor loginExecutor;
+
+    @Autowired
+    private JwtTokenCache tokenCache;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private RegistrationMetrics registrationMetrics;
+
+    @Autowired
+    private AuditLog auditLog;
+
     @PostMapping("/signup")
     @Operation(summary = "User signup",
             security = @SecurityRequirement(name = ""),
@@ -59,24 +85,11 @@ public class AuthController {
             })
     public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest signupRequest, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            for (FieldError error : bindingResult.getFieldErrors()) {
-                errors.put(error.getField(), error.getDefaultMessage());
-                logger.error("Validation error in {}: {}", error.getField(), error.getDefaultMessage());
-            }
+            Map<String, String> errors = ValidationErrors.of(bindingResult);
+            auditLog.invalid(RegistrationMetrics.USER, signupRequest.getEmail(), errors.keySet());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
         }
 
-        if (userRepository.findByEmail(signupRequest.getEmail()).isPresent()) {
-            logger.warn("Signup attempt with duplicate email: {}", signupRequest.getEmail());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Email already exists");
-        }
-
-        if (userRepository.findByNationalId(signupRequest.getNationalId()).isPresent()) {
-            logger.warn("Signup attempt with duplicate national ID: {}", signupRequest.getNationalId());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("National ID already exists");
-        }
-
         User user = new User();
         user.setEmail(signupRequest.getEmail());
         user.setName(signupRequest.getName());
@@ -84,8 +97,24 @@ public class AuthController {
         user.setPhone(signupRequest.getPhone());
         user.setRole(signupRequest.getRole());
         user.setNationalId(signupRequest.getNationalId());
-        userRepository.save(user);
-        logger.info("User registered successfully: {}", user.getEmail());
+        // Encoded before the insert, so a duplicate also pays for bcrypt; it no longer answers measurably faster
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            String key = ConstraintViolations.violatedKey(ex);
+            if (ConstraintViolations.EMAIL.equals(key)) {
+                logger.debug("Signup attempt with duplicate email: {}", signupRequest.getEmail());
+                return duplicate(signupRequest, key, "Email already exists");
+            }
+            if (ConstraintViolations.NATIONAL_ID.equals(key)) {
+                logger.debug("Signup attempt with duplicate national ID: {}", signupRequest.getNationalId());
+                return duplicate(signupRequest, key, "National ID already exists");
+            }
+            throw ex;
+        }
+        registrationMetrics.created(RegistrationMetrics.USER);
+        auditLog.created(RegistrationMetrics.USER, user.getEmail());
+        logger.debug("User registered successfully: {}", user.getEmail());
 
         SignupResponse response = new SignupResponse();
         response.setMessage("User registered successfully");
@@ -102,20 +131,32 @@ public class AuthController {
                     @ApiResponse(responseCode = "200", description = "Login successful",
                             content = @Content(schema = @Schema(implementation = LoginResponse.class))),
                     @ApiResponse(responseCode = "400", description = "Invalid credentials or input"),
-                    @ApiResponse(responseCode = "404", description = "User not found")
+                    @ApiResponse(responseCode = "429", description = "Too many concurrent logins, retry later")
             })
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            for (FieldError error : bindingResult.getFieldErrors()) {
-                errors.put(error.getField(), error.getDefaultMessage());
-                logger.error("Validation error in {}: {}", error.getField(), error.getDefaultMessage());
-            }
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ValidationErrors.of(bindingResult)));
         }
 
         try {
-            authenticationManager.authenticate(
+            return loginExecutor.submit(() -> authenticate(request));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("Login rejected for email {}: login pool saturated", request.getEmail());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many login attempts, please retry"));
+        }
+    }
+
+    /**
+     * Verifies the password and issues a token. Runs on the login pool because BCrypt is CPU-bound;
+     * the user row loaded during authentication is reused to build the token.
+     */
+    private ResponseEntity<?> authenticate(LoginRequest request) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
         } catch (Exception ex) {
@@ -123,11 +164,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid credentials");
         }
 
-        User existingUser = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> {
-                    logger.error("User not found with email: {}", request.getEmail());
-                    return new UsernameNotFoundException("User not found with email: " + request.getEmail());
-                });
+        User existingUser = ((AuthenticatedUser) authentication.getPrincipal()).getUser();
         String token = jwtUtil.generateToken(existingUser);
         logger.info("Login successful for user: {}", existingUser.getEmail());
 
@@ -136,4 +173,38 @@ public class AuthController {
         response.setToken(token);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout")
+    @Operation(summary = "User logout",
+            description = "Revokes the bearer token sent in the Authorization header until it expires.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Logout successful"),
+                    @ApiResponse(responseCode = "400", description = "Missing or invalid token")
+            })
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            logger.warn("Logout attempt without bearer token");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Missing bearer token");
+        }
+
+        String jwt = authHeader.substring(7);
+        VerifiedToken token;
+        try {
+            token = jwtUtil.verify(jwt);
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.warn("Logout attempt with invalid token");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid token");
+        }
+
+        revocationList.revoke(jwt, token);
+        tokenCache.invalidate(jwt);
+        logger.info("Logout successful for user: {}", token.subject());
+        return ResponseEntity.ok("Logout successful");
+    }
+
+    private ResponseEntity<?> duplicate(SignupRequest signupRequest, String key, String message) {
+        registrationMetrics.rejected(RegistrationMetrics.USER, key);
+        auditLog.rejected(RegistrationMetrics.USER, signupRequest.getEmail(), key);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+    }
+}
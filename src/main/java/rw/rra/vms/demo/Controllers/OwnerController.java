@@ -2,11 +2,28 @@ package rw.rra.vms.demo.Controllers;
 
 import jakarta.validation.Valid;
 import rw.rra.vms.demo.dtos.PlateNumberDto;
+import rw.rra.vms.demo.dtos.PlateNumberView;
 import rw.rra.vms.demo.dtos.VehicleOwnerDto;
 import rw.rra.vms.demo.Entities.PlateNumber;
 import rw.rra.vms.demo.Entities.VehicleOwner;
 import rw.rra.vms.demo.Repositories.PlateNumberRepository;
+import rw.rra.vms.demo.Repositories.RowVersions;
 import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.Services.AuditLog;
+import rw.rra.vms.demo.Services.ConstraintViolations;
+import rw.rra.vms.demo.Services.OwnerBatchSearchService;
+import rw.rra.vms.demo.Services.OwnerFuzzySearchService;
+import rw.rra.vms.demo.Services.OwnerImportService;
+import rw.rra.vms.demo.Services.OwnerBulkRegistrationService;
+import rw.rra.vms.demo.Services.OwnerExportService;
+import rw.rra.vms.demo.Services.OwnerLookupCache;
+import rw.rra.vms.demo.Services.RegistrationMetrics;
+import rw.rra.vms.demo.Services.VehicleOwnerMapper;
+import rw.rra.vms.demo.dtos.BulkRegistrationReport;
+import rw.rra.vms.demo.dtos.OwnerBatchSearchRequest;
+import rw.rra.vms.demo.dtos.OwnerSearchHit;
+import rw.rra.vms.demo.dtos.ImportJobStatus;
+import rw.rra.vms.demo.dtos.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -14,17 +31,34 @@ import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
-import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 
 @RestController
@@ -35,94 +69,302 @@ public class OwnerController {
 
     private static final Logger logger = LoggerFactory.getLogger(OwnerController.class);
 
+    // Polled listings may be kept by the client, but only reused after a conditional GET confirms them
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final VehicleOwnerRepository ownerRepository;
     private final PlateNumberRepository plateNumberRepository;
+    private final OwnerBulkRegistrationService bulkRegistrationService;
+    private final OwnerExportService exportService;
+    private final OwnerBatchSearchService batchSearchService;
+    private final OwnerFuzzySearchService fuzzySearchService;
+    private final OwnerImportService importService;
+    private final OwnerLookupCache ownerLookupCache;
+    private final RegistrationMetrics registrationMetrics;
+    private final AuditLog auditLog;
+
+    @Value("${owners.search.batch.max-size:10000}")
+    private int maxBatchSearchSize;
+
+    @Value("${owners.search.fuzzy.max-limit:50}")
+    private int maxFuzzySearchLimit;
 
     private VehicleOwnerDto toDto(VehicleOwner owner) {
-        VehicleOwnerDto dto = new VehicleOwnerDto();
-        dto.setName(owner.getName());
-        dto.setNationalId(owner.getNationalId());
-        dto.setPhone(owner.getPhone());
-        dto.setAddress(owner.getAddress());
-        dto.setEmail(owner.getEmail());
-        return dto;
+        return VehicleOwnerMapper.toDto(owner);
     }
 
     private VehicleOwner toEntity(VehicleOwnerDto dto) {
-        VehicleOwner owner = new VehicleOwner();
-        owner.setName(dto.getName());
-        owner.setNationalId(dto.getNationalId());
-        owner.setPhone(dto.getPhone());
-        owner.setAddress(dto.getAddress());
-        owner.setEmail(dto.getEmail());
-        return owner;
+        return VehicleOwnerMapper.toEntity(dto);
+    }
+
+    /**
+     * Answers If-None-Match (and, without it, If-Modified-Since) from the fingerprint of the rows about to be read,
+     * and sets the ETag and Last-Modified headers of the response. Call it before reading the rows: a write landing
+     * in between then only leaves the response newer than its ETag, which costs the client one refetch,
+     * never a stale 304.
+     * <p>
+     * The ETag is weak, as Tomcat and proxies will not compress a response carrying a strong one, and it includes
+     * the Accept header, as the same rows are sent as JSON, columnar JSON, CBOR or Smile depending on it.
+     * @param total The total the response reports, if any. It changes without the rows changing,
+     *              so it goes into the ETag and rules out Last-Modified.
+     */
+    private static boolean isNotModified(WebRequest webRequest, RowVersions versions, Long total) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        String variant = accept != null ? Integer.toHexString(accept.hashCode()) : "any";
+        String rows = versions.getRowCount() + "-" + versions.getHash();
+        if (total != null) {
+            return webRequest.checkNotModified("W/\"" + rows + "-" + total + "-" + variant + "\"");
+        }
+        long lastModified = versions.getLastModified() != null ? versions.getLastModified() : -1;
+        return webRequest.checkNotModified("W/\"" + rows + "-" + variant + "\"", lastModified);
+    }
+
+    /**
+     * The rows of an offset page, in the id order {@link VehicleOwnerRepository#findVersionsOfPage} fingerprints.
+     */
+    static PageRequest ownerPage(int page, int size) {
+        return PageRequest.of(page, size, Sort.by("id"));
+    }
+
+    private static ResponseEntity.BodyBuilder revalidated(HttpStatus status) {
+        return ResponseEntity.status(status).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT);
+    }
+
+    // checkNotModified has set the status and validators; only the caching policy is left to repeat
+    private static ResponseEntity<?> notModified() {
+        return revalidated(HttpStatus.NOT_MODIFIED).build();
+    }
+
+    private ResponseEntity<?> duplicate(String entity, String subject, String key, String message) {
+        registrationMetrics.rejected(entity, key);
+        auditLog.rejected(entity, subject, key);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
     }
 
     @Operation(summary = "Register a new vehicle owner")
     @PostMapping
     public ResponseEntity<?> registerOwner(@Valid @RequestBody VehicleOwnerDto ownerDto, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            for (FieldError error : bindingResult.getFieldErrors()) {
-                errors.put(error.getField(), error.getDefaultMessage());
-                logger.error("Validation error in {}: {}", error.getField(), error.getDefaultMessage());
-            }
+            Map<String, String> errors = ValidationErrors.of(bindingResult);
+            auditLog.invalid(RegistrationMetrics.OWNER, ownerDto.getNationalId(), errors.keySet());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
         }
 
-        if (ownerRepository.findByNationalId(ownerDto.getNationalId()).isPresent()) {
-            logger.warn("Registration attempt with duplicate national ID: {}", ownerDto.getNationalId());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("National ID already exists");
+        // No pre-checks: the unique constraints reject a taken national ID or email in the same round trip
+        VehicleOwner saved;
+        try {
+            saved = ownerRepository.saveAndFlush(toEntity(ownerDto));
+        } catch (DataIntegrityViolationException ex) {
+            String key = ConstraintViolations.violatedKey(ex);
+            if (ConstraintViolations.NATIONAL_ID.equals(key)) {
+                logger.debug("Registration attempt with duplicate national ID: {}", ownerDto.getNationalId());
+                return duplicate(RegistrationMetrics.OWNER, ownerDto.getNationalId(), key, "National ID already exists");
+            }
+            if (ConstraintViolations.EMAIL.equals(key)) {
+                logger.debug("Registration attempt with duplicate email: {}", ownerDto.getEmail());
+                return duplicate(RegistrationMetrics.OWNER, ownerDto.getNationalId(), key, "Email already exists");
+            }
+            throw ex;
         }
+        registrationMetrics.created(RegistrationMetrics.OWNER);
+        auditLog.created(RegistrationMetrics.OWNER, ownerDto.getNationalId());
+        logger.debug("Owner registered successfully: {}", ownerDto.getEmail());
+        return ResponseEntity.ok(toDto(saved));
+    }
+
+    @Operation(summary = "Register many vehicle owners from a JSON array or NDJSON stream",
+            description = "Rows are validated and inserted in batches; the response counts the rows by outcome and " +
+                    "lists the ones that were not created (duplicate, invalid or failed) with their index.")
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> registerOwnersBulk(InputStream body) throws IOException {
+        BulkRegistrationReport report = bulkRegistrationService.register(body);
+        return ResponseEntity.ok(report);
+    }
 
-        if (ownerRepository.findByEmail(ownerDto.getEmail()).isPresent()) {
-            logger.warn("Registration attempt with duplicate email: {}", ownerDto.getEmail());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Email already exists");
+    @Operation(summary = "Import owners and plates from a CSV file",
+            description = "Multipart upload (part name file) with a header row of name, nationalId, phone, address, email " +
+                    "and optionally plateNumber, issuedDate, inUse; one plate per row. Runs as a background job: " +
+                    "poll the returned Location for progress, then fetch the rejected rows.")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importOwners(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            logger.warn("Owner import attempt with an empty file");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("The file is empty");
         }
+        ImportJobStatus job = importService.submit(file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/owners/import/" + job.id()))
+                .body(job);
+    }
 
-        VehicleOwner saved = ownerRepository.save(toEntity(ownerDto));
-        logger.info("Owner registered successfully: {}", ownerDto.getEmail());
-        return ResponseEntity.ok(toDto(saved));
+    @Operation(summary = "Get the progress of an owner import")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> getImport(@PathVariable Long jobId) {
+        Optional<ImportJobStatus> job = importService.status(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Import not found");
+        }
+        return ResponseEntity.ok(job.get());
+    }
+
+    @Operation(summary = "Download the rejected rows of an owner import",
+            description = "CSV with the file's line number, the row's values and the reason it was rejected.")
+    @GetMapping("/import/{jobId}/rejected")
+    public ResponseEntity<?> getImportRejectedRows(@PathVariable Long jobId) {
+        Optional<Path> rejected = importService.rejectedRows(jobId);
+        if (rejected.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No rejected rows for this import");
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-rejected.csv\"")
+                .body(new FileSystemResource(rejected.get()));
     }
 
-    @Operation(summary = "Get paginated list of vehicle owners")
+    @Operation(summary = "Get paginated list of vehicle owners",
+            description = "With page, returns a classic page with totals. Without page, returns a keyset slice ordered by id: " +
+                    "pass the returned nextCursor as cursor to continue; totals are only computed when count=true. " +
+                    "Responses carry an ETag; send it as If-None-Match to get 304 while the page is unchanged.")
     @GetMapping
-    public ResponseEntity<?> getOwners(@RequestParam @Min(value = 0, message = "Page must be non-negative") int page,
-                                       @RequestParam @Min(value = 1, message = "Size must be at least 1") int size) {
-        return ResponseEntity.ok(ownerRepository.findAll(PageRequest.of(page, size))
-                .map(this::toDto));
+    // One repeatable-read transaction, so the ETag and the rows come from the same snapshot of the same database
+    // (under read committed each statement takes its own)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ResponseEntity<?> getOwners(@RequestParam(required = false) @Min(value = 0, message = "Page must be non-negative") Integer page,
+                                       @RequestParam @Min(value = 1, message = "Size must be at least 1") int size,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "false") boolean count,
+                                       WebRequest webRequest) {
+        if (page != null) {
+            long total = ownerRepository.count();
+            if (isNotModified(webRequest, ownerRepository.findVersionsOfPage((long) page * size, size), total)) {
+                return notModified();
+            }
+            return revalidated(HttpStatus.OK)
+                    .body(ownerRepository.findAll(ownerPage(page, size)).map(this::toDto));
+        }
+
+        long afterId;
+        try {
+            afterId = cursor != null ? CursorPage.decodeCursor(cursor) : 0L;
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Owner listing with invalid cursor: {}", cursor);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor");
+        }
+
+        Long total = count ? ownerRepository.count() : null;
+        if (isNotModified(webRequest, ownerRepository.findVersionsByIdGreaterThan(afterId, size + 1L), total)) {
+            return notModified();
+        }
+
+        Slice<VehicleOwner> slice = ownerRepository.findByIdGreaterThan(afterId,
+                PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id")));
+
+        CursorPage<VehicleOwnerDto> response = new CursorPage<>();
+        response.setContent(slice.getContent().stream().map(this::toDto).toList());
+        response.setSize(slice.getNumberOfElements());
+        response.setHasNext(slice.hasNext());
+        if (slice.hasNext()) {
+            List<VehicleOwner> owners = slice.getContent();
+            response.setNextCursor(CursorPage.encodeCursor(owners.get(owners.size() - 1).getId()));
+        }
+        response.setTotalElements(total);
+        return revalidated(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "Stream all vehicle owners as NDJSON or CSV",
+            description = "Reads through a database cursor and flushes each row as it is written; optionally includes plates.")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOwners(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestParam(defaultValue = "false") boolean includePlates) {
+        OwnerExportService.Format exportFormat = "csv".equalsIgnoreCase(format)
+                ? OwnerExportService.Format.CSV
+                : OwnerExportService.Format.NDJSON;
+        MediaType contentType = exportFormat == OwnerExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String fileName = "owners." + (exportFormat == OwnerExportService.Format.CSV ? "csv" : "ndjson");
+
+        StreamingResponseBody body = out -> exportService.export(out, exportFormat, includePlates);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
     }
 
     @Operation(summary = "Search owner by national ID or phone")
     @GetMapping("/search")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> searchOwner(@RequestParam(required = false) String nationalId,
-                                         @RequestParam(required = false) String phone,
-                                         BindingResult bindingResult) {
-        if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            for (FieldError error : bindingResult.getFieldErrors()) {
-                errors.put(error.getField(), error.getDefaultMessage());
-                logger.error("Validation error in {}: {}", error.getField(), error.getDefaultMessage());
-            }
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
-        }
-
+                                         @RequestParam(required = false) String phone) {
         if (nationalId == null && phone == null) {
             logger.warn("Search attempt with no parameters");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("At least one search parameter (nationalId or phone) is required");
         }
 
-        VehicleOwner owner = null;
-        if (nationalId != null) owner = ownerRepository.findByNationalId(nationalId).orElse(null);
-        else if (phone != null) owner = ownerRepository.findByPhone(phone).orElse(null);
+        Optional<VehicleOwnerDto> owner = nationalId != null
+                ? ownerLookupCache.findByNationalId(nationalId)
+                : ownerLookupCache.findByPhone(phone);
 
-        if (owner == null) {
+        if (owner.isEmpty()) {
             logger.warn("Owner not found for nationalId: {} or phone: {}", nationalId, phone);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Owner not found");
         }
 
-        logger.info("Owner found: {}", owner.getEmail());
-        return ResponseEntity.ok(toDto(owner));
+        logger.info("Owner found: {}", owner.get().getEmail());
+        return ResponseEntity.ok(owner.get());
+    }
+
+    @Operation(summary = "Fuzzy search of owners by name, email, phone or plate number",
+            description = "Prefix and typo-tolerant; returns up to limit owners ranked best first, each with the field " +
+                    "and value it matched on and a score.")
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<?> fuzzySearchOwners(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        String query = q.strip();
+        // Shorter terms have no full trigram to narrow the index scan with
+        if (query.length() < 3) {
+            logger.warn("Fuzzy search attempt with a term shorter than 3 characters");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Search term must be at least 3 characters");
+        }
+        if (limit < 1 || limit > maxFuzzySearchLimit) {
+            logger.warn("Fuzzy search with limit {}, allowed 1 to {}", limit, maxFuzzySearchLimit);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Limit must be between 1 and " + maxFuzzySearchLimit);
+        }
+
+        List<OwnerSearchHit> hits = fuzzySearchService.search(query, limit);
+        logger.debug("Fuzzy search for '{}' returned {} owners", query, hits.size());
+        return ResponseEntity.ok(hits);
+    }
+
+    @Operation(summary = "Search many owners by national ID and/or phone",
+            description = "Resolves the values with a few set-based queries and streams one result per value, in request order " +
+                    "(national IDs first, then phones), each with found=true and the owner or found=false.")
+    @PostMapping(value = "/search/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchOwners(@RequestBody OwnerBatchSearchRequest request) {
+        if (request.getNationalIds() == null) {
+            request.setNationalIds(List.of());
+        }
+        if (request.getPhones() == null) {
+            request.setPhones(List.of());
+        }
+        int size = request.getNationalIds().size() + request.getPhones().size();
+        if (size == 0) {
+            logger.warn("Batch search attempt with no values");
+            return badRequest("At least one nationalId or phone is required");
+        }
+        if (size > maxBatchSearchSize) {
+            logger.warn("Batch search with {} values, limit is {}", size, maxBatchSearchSize);
+            return badRequest("At most " + maxBatchSearchSize + " values per request");
+        }
+
+        StreamingResponseBody body = out -> batchSearchService.search(request, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Streaming endpoints are declared with a StreamingResponseBody body, so their error messages are streamed too
+    private static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
     }
 
     @Operation(summary = "Add a plate number to an owner")
@@ -130,33 +372,36 @@ public class OwnerController {
     public ResponseEntity<?> registerPlate(@PathVariable @Min(value = 1, message = "Owner ID must be positive") Long ownerId,
                                            @Valid @RequestBody PlateNumberDto plateNumberDto, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
-            Map<String, String> errors = new HashMap<>();
-            for (FieldError error : bindingResult.getFieldErrors()) {
-                errors.put(error.getField(), error.getDefaultMessage());
-                logger.error("Validation error in {}: {}", error.getField(), error.getDefaultMessage());
-            }
+            Map<String, String> errors = ValidationErrors.of(bindingResult);
+            auditLog.invalid(RegistrationMetrics.PLATE, plateNumberDto.getPlateNumber(), errors.keySet());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
         }
 
-        VehicleOwner owner = ownerRepository.findById(ownerId)
-                .orElseThrow(() -> {
-                    logger.error("Owner not found with ID: {}", ownerId);
-                    return new RuntimeException("Owner not found");
-                });
-
-        if (plateNumberRepository.findByPlateNumber(plateNumberDto.getPlateNumber()).isPresent()) {
-            logger.warn("Plate number already exists: {}", plateNumberDto.getPlateNumber());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Plate number already exists");
-        }
-
+        // A reference rather than a load: the foreign key reports a missing owner, the unique constraint a taken plate
         PlateNumber plateNumber = new PlateNumber();
-        plateNumber.setOwner(owner);
+        plateNumber.setOwner(ownerRepository.getReferenceById(ownerId));
         plateNumber.setPlateNumber(plateNumberDto.getPlateNumber());
         plateNumber.setIssuedDate(plateNumberDto.getIssuedDate());
         plateNumber.setInUse(plateNumberDto.isInUse());
 
-        PlateNumber saved = plateNumberRepository.save(plateNumber);
-        logger.info("Plate number registered for owner ID {}: {}", ownerId, plateNumberDto.getPlateNumber());
+        PlateNumber saved;
+        try {
+            saved = plateNumberRepository.saveAndFlush(plateNumber);
+        } catch (DataIntegrityViolationException ex) {
+            String key = ConstraintViolations.violatedKey(ex);
+            if (ConstraintViolations.OWNER_ID.equals(key)) {
+                logger.error("Owner not found with ID: {}", ownerId);
+                throw new RuntimeException("Owner not found");
+            }
+            if (ConstraintViolations.PLATE_NUMBER.equals(key)) {
+                logger.debug("Plate number already exists: {}", plateNumberDto.getPlateNumber());
+                return duplicate(RegistrationMetrics.PLATE, plateNumberDto.getPlateNumber(), key, "Plate number already exists");
+            }
+            throw ex;
+        }
+        registrationMetrics.created(RegistrationMetrics.PLATE);
+        auditLog.created(RegistrationMetrics.PLATE, plateNumberDto.getPlateNumber());
+        logger.debug("Plate number registered for owner ID {}: {}", ownerId, plateNumberDto.getPlateNumber());
 
         PlateNumberDto responseDto = new PlateNumberDto();
         responseDto.setPlateNumber(saved.getPlateNumber());
@@ -166,24 +411,25 @@ public class OwnerController {
         return ResponseEntity.ok(responseDto);
     }
 
-    @Operation(summary = "Get plates for an owner")
+    @Operation(summary = "Get plates for an owner",
+            description = "Responses carry an ETag; send it as If-None-Match to get 304 while the plates are unchanged.")
     @GetMapping("/{ownerId}/plates")
-    public ResponseEntity<?> getPlates(@PathVariable @Min(value = 1, message = "Owner ID must be positive") Long ownerId) {
-        VehicleOwner owner = ownerRepository.findById(ownerId)
-                .orElseThrow(() -> {
-                    logger.error("Owner not found with ID: {}", ownerId);
-                    return new RuntimeException("Owner not found");
-                });
-
-        List<PlateNumber> plates = plateNumberRepository.findByOwner(owner);
-        logger.info("Retrieved {} plates for owner ID {}", plates.size(), ownerId);
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ResponseEntity<?> getPlates(@PathVariable @Min(value = 1, message = "Owner ID must be positive") Long ownerId,
+                                       WebRequest webRequest) {
+        RowVersions versions = plateNumberRepository.findVersionsByOwnerId(ownerId);
 
-        return ResponseEntity.ok(plates.stream().map(plate -> {
-            PlateNumberDto dto = new PlateNumberDto();
-            dto.setPlateNumber(plate.getPlateNumber());
-            dto.setIssuedDate(plate.getIssuedDate());
-            dto.setInUse(plate.isInUse());
-            return dto;
-        }).toList());
+        // Only an empty result needs the extra check to tell "no plates" from "no owner"
+        if (versions.getRowCount() == 0 && !ownerRepository.existsById(ownerId)) {
+            logger.error("Owner not found with ID: {}", ownerId);
+            throw new RuntimeException("Owner not found");
+        }
+        if (isNotModified(webRequest, versions, null)) {
+            return notModified();
+        }
+
+        List<PlateNumberView> plates = plateNumberRepository.findViewsByOwnerId(ownerId);
+        logger.info("Retrieved {} plates for owner ID {}", plates.size(), ownerId);
+        return revalidated(HttpStatus.OK).body(plates);
     }
-}
\ No newline at end of file
+}
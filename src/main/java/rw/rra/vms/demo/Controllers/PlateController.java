@@ -0,0 +1,72 @@
+package rw.rra.vms.demo.Controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rw.rra.vms.demo.Services.PlateIndex;
+import rw.rra.vms.demo.dtos.PlateLookupResponse;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/plates")
+@Tag(name = "Plate Controller", description = "Plate to owner lookups")
+public class PlateController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlateController.class);
+
+    private final PlateIndex plateIndex;
+    private final int maxBatchSize;
+
+    public PlateController(PlateIndex plateIndex, @Value("${plates.lookup.max-batch-size:1000}") int maxBatchSize) {
+        this.plateIndex = plateIndex;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Operation(summary = "Look up the owner and status of a plate",
+            description = "Served from the in-memory plate index; returns the owner id, issue date and in-use flag.")
+    @GetMapping("/{plateNumber}")
+    public ResponseEntity<?> getPlate(@PathVariable String plateNumber) {
+        Optional<PlateOwnerView> plate = plateIndex.find(plateNumber);
+        if (plate.isEmpty()) {
+            logger.debug("Plate not found: {}", plateNumber);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Plate not found");
+        }
+        return ResponseEntity.ok(plate.get());
+    }
+
+    @Operation(summary = "Look up many plates at once",
+            description = "Takes a JSON array of plate numbers; returns the registered ones in request order and lists the rest as notFound.")
+    @PostMapping("/batch")
+    public ResponseEntity<?> getPlates(@RequestBody List<String> plateNumbers) {
+        if (plateNumbers.size() > maxBatchSize) {
+            logger.warn("Plate batch lookup with {} plates, limit is {}", plateNumbers.size(), maxBatchSize);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("At most " + maxBatchSize + " plates per request");
+        }
+
+        Set<String> requested = new LinkedHashSet<>(plateNumbers);
+        requested.remove(null);
+        Map<String, PlateOwnerView> found = plateIndex.findAll(requested);
+
+        PlateLookupResponse response = new PlateLookupResponse();
+        for (String plateNumber : requested) {
+            PlateOwnerView plate = found.get(plateNumber);
+            if (plate != null) {
+                response.getFound().add(plate);
+            } else {
+                response.getNotFound().add(plateNumber);
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,30 @@
+package rw.rra.vms.demo.Controllers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The field errors of a rejected request body, as returned to the client: field name to message.
+ */
+final class ValidationErrors {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationErrors.class);
+
+    private ValidationErrors() {
+    }
+
+    // One log line per rejected request; registrations also record the failed fields in the audit trail
+    static Map<String, String> of(BindingResult bindingResult) {
+        Map<String, String> errors = new HashMap<>();
+        for (FieldError error : bindingResult.getFieldErrors()) {
+            errors.put(error.getField(), error.getDefaultMessage());
+        }
+        logger.debug("Validation failed: {}", errors);
+        return errors;
+    }
+}
@@ -2,18 +2,28 @@ package rw.rra.vms.demo.Entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.UpdateTimestamp;
+import rw.rra.vms.demo.Config.PlateChangeListener;
+
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Data
 @Entity
 @Table(name = "plate_number")
+@EntityListeners(PlateChangeListener.class)
 public class PlateNumber {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy so plate reads don't pull the owner row; excluded from toString/equals to keep the proxy untouched
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private VehicleOwner owner;
 
     @Column(nullable = false, unique = true)
@@ -23,4 +33,12 @@ public class PlateNumber {
     private LocalDate issuedDate;
 
     private boolean inUse;
+
+    // Version and last write time make up the ETag and Last-Modified of the owner's plate list
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
 }
\ No newline at end of file
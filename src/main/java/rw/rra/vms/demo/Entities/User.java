@@ -2,10 +2,12 @@ package rw.rra.vms.demo.Entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import rw.rra.vms.demo.Config.UserChangeListener;
 
 @Data
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
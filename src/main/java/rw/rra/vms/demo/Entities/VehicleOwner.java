@@ -2,13 +2,20 @@ package rw.rra.vms.demo.Entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
+import rw.rra.vms.demo.Config.OwnerChangeListener;
+
+import java.time.Instant;
 
 @Data
 @Entity
 @Table(name = "vehicle_owner")
+@EntityListeners(OwnerChangeListener.class)
 public class VehicleOwner {
+    // Sequence ids (pooled by 50) keep Hibernate JDBC batching available for bulk inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicle_owner_seq")
+    @SequenceGenerator(name = "vehicle_owner_seq", sequenceName = "vehicle_owner_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -25,4 +32,12 @@ public class VehicleOwner {
 
     @Column(nullable = false, unique = true)
     private String email;
+
+    // Version and last write time make up the owner listing's ETag and Last-Modified
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
 }
\ No newline at end of file
@@ -1,13 +1,67 @@
 package rw.rra.vms.demo.Repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import rw.rra.vms.demo.Entities.PlateNumber;
 import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.dtos.PlateNumberView;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PlateNumberRepository extends JpaRepository<PlateNumber, Long> {
     List<PlateNumber> findByOwner(VehicleOwner owner);
     Optional<PlateNumber> findByPlateNumber(String plateNumber);
+
+    /**
+     * Selects only the plate columns for an owner in a single query, filtering on the owner_id
+     * foreign key so the owner row is never read.
+     * @param ownerId The owner's id.
+     * @return The owner's plates, oldest first.
+     */
+    @Query("select new rw.rra.vms.demo.dtos.PlateNumberView(p.plateNumber, p.issuedDate, p.inUse) " +
+            "from PlateNumber p where p.owner.id = :ownerId order by p.id")
+    List<PlateNumberView> findViewsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Fingerprint of the plates {@link #findViewsByOwnerId} returns, through the same owner_id index.
+     */
+    @Query(value = "select count(*) as rowCount, md5(string_agg(id || ':' || version, ',' order by id)) as hash, " +
+            "cast(extract(epoch from max(updated_at)) * 1000 as bigint) as lastModified " +
+            "from plate_number where owner_id = :ownerId", nativeQuery = true)
+    RowVersions findVersionsByOwnerId(@Param("ownerId") long ownerId);
+
+    @Query("select new rw.rra.vms.demo.dtos.PlateOwnerView(p.plateNumber, p.owner.id, p.issuedDate, p.inUse) " +
+            "from PlateNumber p where p.plateNumber = :plateNumber")
+    Optional<PlateOwnerView> findOwnerViewByPlateNumber(@Param("plateNumber") String plateNumber);
+
+    @Query("select new rw.rra.vms.demo.dtos.PlateOwnerView(p.plateNumber, p.owner.id, p.issuedDate, p.inUse) " +
+            "from PlateNumber p where p.plateNumber in :plateNumbers")
+    List<PlateOwnerView> findOwnerViewsByPlateNumberIn(@Param("plateNumbers") Collection<String> plateNumbers);
+
+    /**
+     * Streams every plate with its owner id (the foreign key, without joining the owner) through a forward-only cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select new rw.rra.vms.demo.dtos.PlateOwnerView(p.plateNumber, p.owner.id, p.issuedDate, p.inUse) " +
+            "from PlateNumber p")
+    Stream<PlateOwnerView> streamAllOwnerViews();
+
+    /**
+     * Streams the plates written after {@code since}, through idx_plate_number_updated_at. Must be consumed inside
+     * a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select new rw.rra.vms.demo.dtos.PlateOwnerView(p.plateNumber, p.owner.id, p.issuedDate, p.inUse) " +
+            "from PlateNumber p where p.updatedAt > :since")
+    Stream<PlateOwnerView> streamOwnerViewsUpdatedSince(@Param("since") Instant since);
 }
@@ -0,0 +1,21 @@
+package rw.rra.vms.demo.Repositories;
+
+/**
+ * Fingerprint of the rows behind a read, taken from their id, version and updated_at columns only:
+ * equal fingerprints mean the rows read the same, so it can answer a conditional GET without loading them.
+ */
+public interface RowVersions {
+
+    long getRowCount();
+
+    /**
+     * @return md5 of the rows' ids and versions in id order, or null when there are no rows.
+     */
+    String getHash();
+
+    /**
+     * @return The latest updated_at of the rows in epoch milliseconds, or null when there are no rows.
+     *         Deleted rows leave no trace here, which is why the hash is the validator that counts.
+     */
+    Long getLastModified();
+}
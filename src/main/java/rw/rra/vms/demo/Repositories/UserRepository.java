@@ -2,16 +2,21 @@ package  rw.rra.vms.demo.Repositories;
 
 import rw.rra.vms.demo.Entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     /**
-     * Finds a user by email.
+     * Finds a user by email, ignoring case like the ux_users_email_lower unique index it uses.
      * @param email The user's email.
      * @return Optional containing the user, if found.
      */
-    Optional<User> findByEmail(String email);
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
 
     /**
      * Finds a user by national ID.
@@ -19,4 +24,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Optional containing the user, if found.
      */
     Optional<User> findByNationalId(String nationalId);
-}
\ No newline at end of file
+
+    /**
+     * Replaces a user's password hash in place. Used for rehash-on-login, which keeps the same
+     * password, so it deliberately bypasses the entity listeners that revoke tokens on user changes.
+     * @param email The user's email.
+     * @param password The new password hash.
+     * @return Number of rows updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+}
@@ -1,12 +1,169 @@
 package rw.rra.vms.demo.Repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import rw.rra.vms.demo.Entities.VehicleOwner;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface VehicleOwnerRepository extends JpaRepository<VehicleOwner, Long> {
     Optional<VehicleOwner> findByNationalId(String nationalId);
     Optional<VehicleOwner> findByPhone(String phone);
-    Optional<VehicleOwner> findByEmail(String email);
+    List<VehicleOwner> findByNationalIdIn(Collection<String> nationalIds);
+    List<VehicleOwner> findByPhoneIn(Collection<String> phones);
+
+    /**
+     * Finds an owner by email, ignoring case like the ux_vehicle_owner_email_lower unique index it uses.
+     * @param email The owner's email.
+     * @return Optional containing the owner, if found.
+     */
+    @Query("select o from VehicleOwner o where lower(o.email) = lower(:email)")
+    Optional<VehicleOwner> findByEmail(@Param("email") String email);
+
+    /**
+     * Keyset page: owners with an id greater than the given one, without a count query.
+     * @param id Last id the client has seen (0 for the first slice).
+     * @param pageable Slice size and sort, expected to sort by id ascending.
+     * @return The next slice of owners.
+     */
+    Slice<VehicleOwner> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Fingerprint of the keyset slice {@link #findByIdGreaterThan} returns for the same id.
+     * @param id Last id the client has seen (0 for the first slice).
+     * @param limit Slice size plus one, so the row that decides whether there is a next slice is covered too.
+     */
+    @Query(value = "select count(*) as rowCount, md5(string_agg(id || ':' || version, ',' order by id)) as hash, " +
+            "cast(extract(epoch from max(updated_at)) * 1000 as bigint) as lastModified " +
+            "from (select id, version, updated_at from vehicle_owner where id > :id order by id limit :limit) s",
+            nativeQuery = true)
+    RowVersions findVersionsByIdGreaterThan(@Param("id") long id, @Param("limit") long limit);
+
+    /**
+     * Fingerprint of the offset page {@code findAll(PageRequest.of(page, size, Sort.by("id")))} returns. Both are
+     * ordered by id, so they read the same rows whichever plan the database picks for each.
+     */
+    @Query(value = "select count(*) as rowCount, md5(string_agg(id || ':' || version, ',' order by id)) as hash, " +
+            "cast(extract(epoch from max(updated_at)) * 1000 as bigint) as lastModified " +
+            "from (select id, version, updated_at from vehicle_owner order by id offset :offset limit :limit) s",
+            nativeQuery = true)
+    RowVersions findVersionsOfPage(@Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * Finds the unique keys already taken by any of the given national IDs or emails, in one query. Emails match
+     * regardless of case, on the lower(email) index.
+     * @param nationalIds Candidate national IDs.
+     * @param emails Candidate emails, lower-cased.
+     * @return The national ID and email of every matching owner.
+     */
+    @Query("select o.nationalId as nationalId, o.email as email from VehicleOwner o " +
+            "where o.nationalId in :nationalIds or lower(o.email) in :emails")
+    List<OwnerKeys> findKeysByNationalIdInOrEmailIn(@Param("nationalIds") Collection<String> nationalIds,
+                                                    @Param("emails") Collection<String> emails);
+
+    /**
+     * Streams every owner in id order through a forward-only cursor. Must be consumed inside a transaction.
+     * @return Owner columns as scalar rows, which never enter the persistence context.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o.id as id, o.name as name, o.nationalId as nationalId, o.phone as phone, " +
+            "o.address as address, o.email as email from VehicleOwner o order by o.id")
+    Stream<OwnerExportRow> streamAllForExport();
+
+    /**
+     * Streams every owner joined with its plates, ordered by owner id so an owner's rows are adjacent.
+     * Owners without plates appear once with null plate columns. Must be consumed inside a transaction.
+     * @return One row per owner and plate.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o.id as id, o.name as name, o.nationalId as nationalId, o.phone as phone, " +
+            "o.address as address, o.email as email, p.plateNumber as plateNumber, " +
+            "p.issuedDate as issuedDate, p.inUse as inUse " +
+            "from VehicleOwner o left join PlateNumber p on p.owner = o order by o.id, p.id")
+    Stream<OwnerExportRow> streamAllWithPlatesForExport();
+
+    /**
+     * Prefix and typo-tolerant search over owner names, emails and phones and plate numbers, ranked best first.
+     * Each column is searched through its trigram GiST index nearest first and cut at {@code limit} rows, so the cost
+     * stays bounded however many rows share the term. An owner matched on several columns is ranked by its best match.
+     * Only values with a word similarity of at least the session's pg_trgm.word_similarity_threshold are considered.
+     * The prefix bonus is applied after that cut: a value starting with the term only ranks first if it is among its
+     * column's {@code limit} nearest values by trigram distance. When more than {@code limit} values of a column are
+     * as close (a common name), some prefix matches can be left out in favour of values that merely contain the term.
+     * @param query Search term, at least three characters for the trigram indexes to be selective.
+     * @param limit Maximum number of owners returned, and of candidates taken from each column.
+     * @return Owners with the column and value they matched on and a score: the pg_trgm word similarity (0-1),
+     *         plus 1 when the value starts with the term.
+     */
+    @Query(value = "select o.id as id, o.name as name, o.national_id as nationalId, o.phone as phone, " +
+            "o.address as address, o.email as email, best.matched_on as matchedOn, " +
+            "best.matched_value as matchedValue, best.score as score " +
+            "from (select distinct on (m.owner_id) m.owner_id, m.matched_on, m.matched_value, " +
+            "cast(round(cast(1 - m.distance as numeric), 3) " +
+            "+ case when starts_with(lower(m.matched_value), lower(:query)) then 1 else 0 end as double precision) as score " +
+            "from ((select id as owner_id, 'name' as matched_on, name as matched_value, :query <<-> name as distance " +
+            "from vehicle_owner where :query <% name order by :query <<-> name limit :limit) " +
+            "union all (select id, 'email', email, :query <<-> email " +
+            "from vehicle_owner where :query <% email order by :query <<-> email limit :limit) " +
+            "union all (select id, 'phone', phone, :query <<-> phone " +
+            "from vehicle_owner where :query <% phone order by :query <<-> phone limit :limit) " +
+            "union all (select owner_id, 'plate', plate_number, :query <<-> plate_number " +
+            "from plate_number where :query <% plate_number order by :query <<-> plate_number limit :limit)) m " +
+            "order by m.owner_id, score desc) best " +
+            "join vehicle_owner o on o.id = best.owner_id " +
+            "order by best.score desc, o.id limit :limit", nativeQuery = true)
+    List<OwnerSearchRow> fuzzySearch(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Sets pg_trgm.word_similarity_threshold, used by {@link #fuzzySearch}, until the end of the current transaction.
+     * @param threshold Word similarity between 0 and 1, as text.
+     * @return The new setting.
+     */
+    @Query(value = "select set_config('pg_trgm.word_similarity_threshold', :threshold, true)", nativeQuery = true)
+    String setWordSimilarityThreshold(@Param("threshold") String threshold);
+
+    interface OwnerExportRow {
+        Long getId();
+        String getName();
+        String getNationalId();
+        String getPhone();
+        String getAddress();
+        String getEmail();
+        String getPlateNumber();
+        LocalDate getIssuedDate();
+        Boolean getInUse();
+    }
+
+    interface OwnerSearchRow {
+        Long getId();
+        String getName();
+        String getNationalId();
+        String getPhone();
+        String getAddress();
+        String getEmail();
+        String getMatchedOn();
+        String getMatchedValue();
+        Double getScore();
+    }
+
+    interface OwnerKeys {
+        String getNationalId();
+        String getEmail();
+    }
 }
@@ -0,0 +1,30 @@
+package rw.rra.vms.demo.Services;
+
+import java.time.Instant;
+
+/**
+ * One row of the {@code audit_event} table: who attempted which registration and how it ended.
+ *
+ * @param actor     Authenticated user that made the request, or {@code anonymous} (e.g. for signups).
+ * @param entity    {@link RegistrationMetrics#OWNER}, {@link RegistrationMetrics#PLATE} or {@link RegistrationMetrics#USER}.
+ * @param entityKey National ID of an owner, plate number of a plate, email of a user.
+ * @param outcome   {@code created}, {@code duplicate} or {@code invalid}.
+ * @param reason    The key that was taken for duplicates, the rejected fields for invalid requests.
+ * <p>
+ * The free-text values come from client input (an invalid request's key can be any length) and are cut to their
+ * columns' 255 characters, as one value too long would fail the whole batch it is written in.
+ */
+public record AuditEvent(Instant occurredAt, String actor, String entity, String entityKey, String outcome, String reason) {
+
+    private static final int MAX_LENGTH = 255;
+
+    public AuditEvent {
+        actor = truncate(actor);
+        entityKey = truncate(entityKey);
+        reason = truncate(reason);
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= MAX_LENGTH ? value : value.substring(0, MAX_LENGTH);
+    }
+}
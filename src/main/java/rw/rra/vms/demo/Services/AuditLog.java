@@ -0,0 +1,176 @@
+package rw.rra.vms.demo.Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit trail of owner, plate and user registrations, written to the {@code audit_event} table.
+ * <p>
+ * Request threads only put an {@link AuditEvent} into a lock-free ring buffer; a single writer thread drains it
+ * and inserts the events in JDBC batches, so the database round trip stays off the request path.
+ * When the buffer is full, a request waits up to {@code audit.max-wait} for space and then drops its event
+ * (the default wait of zero never blocks). Loss is therefore bounded: dropped events are counted, a failed batch
+ * is dropped and counted, and a crash loses at most the events still buffered. Events buffered at shutdown are
+ * written before the application stops.
+ * <p>
+ * Meters: {@code audit.events} tagged {@code result} (written, dropped, failed) and {@code audit.buffer.size}.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final String INSERT = "INSERT INTO audit_event (occurred_at, actor, entity, entity_key, outcome, reason) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxWaitNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLog(JdbcTemplate jdbcTemplate,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry,
+                    @Value("${audit.buffer-size:16384}") int bufferSize,
+                    @Value("${audit.batch-size:500}") int batchSize,
+                    @Value("${audit.flush-interval:200ms}") Duration flushInterval,
+                    @Value("${audit.max-wait:0ms}") Duration maxWait) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.failed = counter(meterRegistry, "failed");
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public void created(String entity, String entityKey) {
+        publish(entity, entityKey, "created", null);
+    }
+
+    /**
+     * @param reason The key that was already taken, as passed to {@link RegistrationMetrics#rejected}.
+     */
+    public void rejected(String entity, String entityKey, String reason) {
+        publish(entity, entityKey, "duplicate", reason);
+    }
+
+    public void invalid(String entity, String entityKey, Collection<String> fields) {
+        publish(entity, entityKey, "invalid", String.join(",", fields));
+    }
+
+    private void publish(String entity, String entityKey, String outcome, String reason) {
+        // The actor is resolved here, on the request thread that holds the security context
+        AuditEvent event = new AuditEvent(Instant.now(), currentActor(), entity, entityKey, outcome, reason);
+        if (buffer.offer(event)) {
+            return;
+        }
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(event)) {
+                return;
+            }
+        }
+        dropped.increment();
+    }
+
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            AuditEvent event;
+            while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                    (statement, event) -> {
+                        statement.setTimestamp(1, Timestamp.from(event.occurredAt()));
+                        statement.setString(2, event.actor());
+                        statement.setString(3, event.entity());
+                        statement.setString(4, event.entityKey());
+                        statement.setString(5, event.outcome());
+                        statement.setString(6, event.reason());
+                    }));
+            written.increment(batch.size());
+        } catch (RuntimeException ex) {
+            failed.increment(batch.size());
+            logger.error("Failed to write {} audit events", batch.size(), ex);
+        }
+    }
+
+    static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return "anonymous";
+        }
+        return authentication.getName();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("audit.events")
+                .description("Audit events by what happened to them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package rw.rra.vms.demo.Services;
+
+import org.springframework.security.core.GrantedAuthority;
+import rw.rra.vms.demo.Entities.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security principal that keeps a reference to the {@link User} row it was built from,
+ * so callers can reach the entity (and its id) without loading it again.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final User user;
+
+    public AuthenticatedUser(User user, Collection<? extends GrantedAuthority> authorities) {
+        super(user.getEmail(), user.getPassword(), authorities);
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Long getUserId() {
+        return user.getId();
+    }
+}
@@ -0,0 +1,47 @@
+package rw.rra.vms.demo.Services;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps the constraint behind a failed insert to the registration key it protects. Registrations insert straight
+ * away and let the constraints decide whether a key is taken: one round trip whether the insert succeeds or not,
+ * and no window between a check and the insert for a concurrent duplicate to slip through.
+ */
+public final class ConstraintViolations {
+
+    public static final String NATIONAL_ID = "national_id";
+    public static final String EMAIL = "email";
+    public static final String PLATE_NUMBER = "plate_number";
+    public static final String OWNER_ID = "owner_id";
+
+    // Emails have two unique indexes each: the column itself (V1) and lower(email) (V2)
+    private static final Map<String, String> KEYS = Map.of(
+            "uk_vehicle_owner_national_id", NATIONAL_ID,
+            "uk_vehicle_owner_email", EMAIL,
+            "ux_vehicle_owner_email_lower", EMAIL,
+            "uk_users_national_id", NATIONAL_ID,
+            "uk_users_email", EMAIL,
+            "ux_users_email_lower", EMAIL,
+            "uk_plate_number_plate_number", PLATE_NUMBER,
+            "fk_plate_number_owner", OWNER_ID);
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * @return The key protected by the violated constraint, e.g. {@link #NATIONAL_ID},
+     *         or null when the constraint is not one of the registration constraints or cannot be told.
+     */
+    public static String violatedKey(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return KEYS.get(violation.getConstraintName().toLowerCase(Locale.ROOT));
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package rw.rra.vms.demo.Services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma-separated fields, optionally double-quoted, with {@code ""} for a quote
+ * and line breaks allowed inside quotes. Records end at LF or CRLF; a leading byte order mark is skipped.
+ * Only the current record is held in memory, so files of any size can be read.
+ */
+class CsvRecordReader {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return The fields of the next record, or null at the end of the input. Empty fields are empty strings.
+     * @throws IOException If the input cannot be read, or ends inside a quoted field.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        if (c < 0) {
+            return null;
+        }
+
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c < 0) {
+                break;
+            } else if (c == '\r') {
+                c = read();
+                if (c == '\n' || c < 0) {
+                    break;
+                }
+                field.append('\r');
+                continue;
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        if (c == '\n') {
+            line++;
+        }
+        return fields;
+    }
+
+    /**
+     * @return The line the record last returned by {@link #next()} starts on, counting from 1.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
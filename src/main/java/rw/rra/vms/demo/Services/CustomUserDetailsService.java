@@ -2,16 +2,22 @@ package rw.rra.vms.demo.Services;
 
 import rw.rra.vms.demo.Entities.User;
 import rw.rra.vms.demo.Repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
 
@@ -20,14 +26,31 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
+        return new AuthenticatedUser(
+                user,
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
         );
     }
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash was produced
+     * with a different BCrypt work factor than the configured one.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.updatePassword(userDetails.getUsername(), newPassword);
+        logger.info("Password rehashed with current work factor for user: {}", userDetails.getUsername());
+
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            User user = authenticatedUser.getUser();
+            user.setPassword(newPassword);
+            return new AuthenticatedUser(user, authenticatedUser.getAuthorities());
+        }
+        return loadUserByUsername(userDetails.getUsername());
+    }
 }
@@ -0,0 +1,101 @@
+package rw.rra.vms.demo.Services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.OwnerBatchSearchRequest;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves many national IDs and phones with one {@code IN} query per chunk and streams the results as a JSON array,
+ * one element per requested value in request order (national IDs first, then phones):
+ * {@code {"nationalId": "...", "found": true, "owner": {...}}} or {@code {"phone": "...", "found": false}}.
+ * Each chunk is queried in its own short read-only transaction and written before the next is read, so memory use
+ * depends on the chunk size rather than the request size. A phone shared by several owners resolves to the
+ * earliest registered one.
+ */
+@Service
+public class OwnerBatchSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OwnerBatchSearchService.class);
+
+    private final VehicleOwnerRepository ownerRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+
+    public OwnerBatchSearchService(VehicleOwnerRepository ownerRepository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${owners.search.batch.chunk-size:500}") int chunkSize) {
+        this.ownerRepository = ownerRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+    }
+
+    public void search(OwnerBatchSearchRequest request, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        int found;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            found = writeChunks(generator, "nationalId", request.getNationalIds(),
+                    ownerRepository::findByNationalIdIn, VehicleOwner::getNationalId);
+            found += writeChunks(generator, "phone", request.getPhones(),
+                    ownerRepository::findByPhoneIn, VehicleOwner::getPhone);
+            generator.writeEndArray();
+        }
+        logger.debug("Batch owner search: {} national IDs, {} phones, {} found in {} ms",
+                request.getNationalIds().size(), request.getPhones().size(), found, System.currentTimeMillis() - start);
+    }
+
+    private int writeChunks(JsonGenerator generator, String field, List<String> values,
+                            Function<Collection<String>, List<VehicleOwner>> query,
+                            Function<VehicleOwner, String> key) throws IOException {
+        int found = 0;
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            List<String> chunk = values.subList(from, Math.min(values.size(), from + chunkSize));
+            Map<String, VehicleOwnerDto> owners = readOnlyTransaction.execute(status -> {
+                Map<String, VehicleOwnerDto> byKey = new HashMap<>();
+                // Ascending id, so putIfAbsent keeps the earliest owner for a shared phone
+                query.apply(new LinkedHashSet<>(chunk)).stream()
+                        .sorted(Comparator.comparing(VehicleOwner::getId))
+                        .forEach(owner -> byKey.putIfAbsent(key.apply(owner), VehicleOwnerMapper.toDto(owner)));
+                return byKey;
+            });
+
+            for (String value : chunk) {
+                VehicleOwnerDto owner = owners.get(value);
+                generator.writeStartObject();
+                generator.writeStringField(field, value);
+                generator.writeBooleanField("found", owner != null);
+                if (owner != null) {
+                    generator.writeObjectField("owner", owner);
+                    found++;
+                }
+                generator.writeEndObject();
+            }
+            generator.flush();
+        }
+        return found;
+    }
+}
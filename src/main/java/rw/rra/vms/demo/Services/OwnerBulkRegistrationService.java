@@ -0,0 +1,244 @@
+package rw.rra.vms.demo.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.BulkRegistrationReport;
+import rw.rra.vms.demo.dtos.BulkRegistrationResult;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Registers owners in bulk from a JSON array or an NDJSON stream.
+ * Rows are read incrementally and handled in chunks: each chunk is validated, checked for duplicates
+ * with one set-based query, and inserted in one transaction so Hibernate can batch the inserts.
+ */
+@Service
+public class OwnerBulkRegistrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OwnerBulkRegistrationService.class);
+
+    private final VehicleOwnerRepository ownerRepository;
+    private final RegistrationMetrics registrationMetrics;
+    private final AuditLog auditLog;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader ownerReader;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OwnerBulkRegistrationService(VehicleOwnerRepository ownerRepository,
+                                        RegistrationMetrics registrationMetrics,
+                                        AuditLog auditLog,
+                                        Validator validator,
+                                        PlatformTransactionManager transactionManager,
+                                        ObjectMapper objectMapper,
+                                        @Value("${owners.bulk.chunk-size:500}") int chunkSize) {
+        this.ownerRepository = ownerRepository;
+        this.registrationMetrics = registrationMetrics;
+        this.auditLog = auditLog;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ownerReader = objectMapper.readerFor(VehicleOwnerDto.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads owners from the stream and registers them chunk by chunk.
+     * A top-level JSON array is unwrapped; otherwise the input is read as whitespace-separated JSON objects (NDJSON).
+     * Rows before a malformed one are kept; the malformed row ends the request with an INVALID result.
+     */
+    public BulkRegistrationReport register(InputStream body) throws IOException {
+        BulkRegistrationReport report = new BulkRegistrationReport();
+        List<VehicleOwnerDto> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<VehicleOwnerDto> rows = ownerReader.readValues(body)) {
+            while (true) {
+                VehicleOwnerDto row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonProcessingException ex) {
+                    processChunk(chunk, index - chunk.size(), report);
+                    report.add(result(index, BulkRegistrationResult.Status.INVALID, "Malformed JSON: " + ex.getOriginalMessage()));
+                    logger.warn("Bulk owner registration stopped at row {}: malformed JSON", index);
+                    return report;
+                }
+
+                chunk.add(row);
+                index++;
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, index - chunk.size(), report);
+                    chunk.clear();
+                }
+            }
+        }
+        processChunk(chunk, index - chunk.size(), report);
+
+        logger.info("Bulk owner registration: {} rows, {} created, {} duplicates, {} invalid, {} failed",
+                report.getTotal(), report.getCreated(), report.getDuplicates(), report.getInvalid(), report.getFailed());
+        return report;
+    }
+
+    private void processChunk(List<VehicleOwnerDto> chunk, int firstIndex, BulkRegistrationReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        BulkRegistrationResult[] results = new BulkRegistrationResult[chunk.size()];
+        Map<Integer, VehicleOwnerDto> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            VehicleOwnerDto dto = chunk.get(i);
+            Set<ConstraintViolation<VehicleOwnerDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new HashMap<>();
+                for (ConstraintViolation<VehicleOwnerDto> violation : violations) {
+                    errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+                results[i] = result(firstIndex + i, BulkRegistrationResult.Status.INVALID, "Validation failed");
+                results[i].setErrors(errors);
+                auditLog.invalid(RegistrationMetrics.OWNER, dto.getNationalId(), errors.keySet());
+            } else {
+                candidates.put(i, dto);
+            }
+        }
+
+        rejectDuplicates(candidates, firstIndex, results);
+        insert(candidates, firstIndex, results);
+
+        for (BulkRegistrationResult result : results) {
+            report.add(result);
+        }
+    }
+
+    /**
+     * Marks rows whose national ID or email is already registered, or repeated earlier in the same chunk.
+     * Existing keys are fetched with a single query for the whole chunk. Emails are compared regardless of case,
+     * like the lower(email) unique index does.
+     */
+    private void rejectDuplicates(Map<Integer, VehicleOwnerDto> candidates, int firstIndex, BulkRegistrationResult[] results) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<String> nationalIds = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (VehicleOwnerDto dto : candidates.values()) {
+            nationalIds.add(dto.getNationalId());
+            emails.add(lowerCase(dto.getEmail()));
+        }
+
+        Set<String> takenNationalIds = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        for (VehicleOwnerRepository.OwnerKeys keys : ownerRepository.findKeysByNationalIdInOrEmailIn(nationalIds, emails)) {
+            takenNationalIds.add(keys.getNationalId());
+            takenEmails.add(lowerCase(keys.getEmail()));
+        }
+
+        Iterator<Map.Entry<Integer, VehicleOwnerDto>> it = candidates.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, VehicleOwnerDto> entry = it.next();
+            VehicleOwnerDto dto = entry.getValue();
+            String message = null;
+            String reason = null;
+            if (takenNationalIds.contains(dto.getNationalId())) {
+                message = "National ID already exists";
+                reason = "national_id";
+            } else if (takenEmails.contains(lowerCase(dto.getEmail()))) {
+                message = "Email already exists";
+                reason = "email";
+            }
+            if (message != null) {
+                registrationMetrics.rejected(RegistrationMetrics.OWNER, reason);
+                auditLog.rejected(RegistrationMetrics.OWNER, dto.getNationalId(), reason);
+                results[entry.getKey()] = result(firstIndex + entry.getKey(), BulkRegistrationResult.Status.DUPLICATE, message);
+                it.remove();
+            } else {
+                takenNationalIds.add(dto.getNationalId());
+                takenEmails.add(lowerCase(dto.getEmail()));
+            }
+        }
+    }
+
+    private static String lowerCase(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private void insert(Map<Integer, VehicleOwnerDto> candidates, int firstIndex, BulkRegistrationResult[] results) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Integer, VehicleOwner> saved = transactionTemplate.execute(status -> {
+                Map<Integer, VehicleOwner> owners = new LinkedHashMap<>();
+                candidates.forEach((i, dto) -> owners.put(i, VehicleOwnerMapper.toEntity(dto)));
+                ownerRepository.saveAll(owners.values());
+                ownerRepository.flush();
+                // Keep the persistence context from growing across chunks when it outlives the transaction
+                entityManager.clear();
+                return owners;
+            });
+            saved.forEach((i, owner) -> {
+                results[i] = result(firstIndex + i, BulkRegistrationResult.Status.CREATED, null);
+                auditLog.created(RegistrationMetrics.OWNER, owner.getNationalId());
+            });
+            registrationMetrics.created(RegistrationMetrics.OWNER, saved.size());
+        } catch (DataIntegrityViolationException ex) {
+            // Another writer took one of the keys after the duplicate check; retry the rows one at a time
+            logger.warn("Bulk insert of rows {}-{} hit a unique constraint, retrying row by row",
+                    firstIndex, firstIndex + results.length - 1);
+            candidates.forEach((i, dto) -> results[i] = insertOne(firstIndex + i, dto));
+        }
+    }
+
+    private BulkRegistrationResult insertOne(int index, VehicleOwnerDto dto) {
+        try {
+            VehicleOwner owner = transactionTemplate.execute(status -> {
+                VehicleOwner entity = ownerRepository.saveAndFlush(VehicleOwnerMapper.toEntity(dto));
+                entityManager.clear();
+                return entity;
+            });
+            registrationMetrics.created(RegistrationMetrics.OWNER);
+            auditLog.created(RegistrationMetrics.OWNER, owner.getNationalId());
+            return result(index, BulkRegistrationResult.Status.CREATED, null);
+        } catch (DataIntegrityViolationException ex) {
+            registrationMetrics.rejected(RegistrationMetrics.OWNER, RegistrationMetrics.UNIQUE_CONSTRAINT);
+            auditLog.rejected(RegistrationMetrics.OWNER, dto.getNationalId(), RegistrationMetrics.UNIQUE_CONSTRAINT);
+            return result(index, BulkRegistrationResult.Status.DUPLICATE, "National ID or email already exists");
+        } catch (RuntimeException ex) {
+            logger.error("Bulk owner registration failed for row {}", index, ex);
+            return result(index, BulkRegistrationResult.Status.FAILED, "Registration failed");
+        }
+    }
+
+    private static BulkRegistrationResult result(int index, BulkRegistrationResult.Status status, String message) {
+        BulkRegistrationResult result = new BulkRegistrationResult();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setMessage(message);
+        return result;
+    }
+}
@@ -0,0 +1,157 @@
+package rw.rra.vms.demo.Services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository.OwnerExportRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every owner, optionally with their plates, straight from a database cursor to an output stream.
+ * Rows are mapped and flushed one at a time, so memory use does not depend on the table size.
+ */
+@Service
+public class OwnerExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final Logger logger = LoggerFactory.getLogger(OwnerExportService.class);
+
+    private final VehicleOwnerRepository ownerRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OwnerExportService(VehicleOwnerRepository ownerRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.ownerRepository = ownerRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(OutputStream out, Format format, boolean includePlates) {
+        long start = System.currentTimeMillis();
+        Long owners = readOnlyTransaction.execute(status -> {
+            try (Stream<OwnerExportRow> rows = includePlates
+                    ? ownerRepository.streamAllWithPlatesForExport()
+                    : ownerRepository.streamAllForExport()) {
+                return format == Format.CSV
+                        ? writeCsv(rows.iterator(), out, includePlates)
+                        : writeNdjson(rows.iterator(), out, includePlates);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info("Exported {} owners as {} in {} ms", owners, format, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * One JSON object per owner per line. With plates, consecutive rows of the same owner are folded
+     * into a {@code plates} array before the line is flushed.
+     */
+    private long writeNdjson(Iterator<OwnerExportRow> rows, OutputStream out, boolean includePlates) throws IOException {
+        long owners = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            OwnerExportRow row = rows.hasNext() ? rows.next() : null;
+            while (row != null) {
+                Long ownerId = row.getId();
+                generator.writeStartObject();
+                generator.writeNumberField("id", ownerId);
+                generator.writeStringField("name", row.getName());
+                generator.writeStringField("nationalId", row.getNationalId());
+                generator.writeStringField("phone", row.getPhone());
+                generator.writeStringField("address", row.getAddress());
+                generator.writeStringField("email", row.getEmail());
+
+                if (includePlates) {
+                    generator.writeArrayFieldStart("plates");
+                    do {
+                        if (row.getPlateNumber() != null) {
+                            generator.writeStartObject();
+                            generator.writeStringField("plateNumber", row.getPlateNumber());
+                            generator.writeObjectField("issuedDate", row.getIssuedDate());
+                            generator.writeBooleanField("inUse", Boolean.TRUE.equals(row.getInUse()));
+                            generator.writeEndObject();
+                        }
+                        row = rows.hasNext() ? rows.next() : null;
+                    } while (row != null && ownerId.equals(row.getId()));
+                    generator.writeEndArray();
+                } else {
+                    row = rows.hasNext() ? rows.next() : null;
+                }
+
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                generator.flush();
+                owners++;
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * One CSV line per owner, or per owner and plate when plates are included.
+     */
+    private long writeCsv(Iterator<OwnerExportRow> rows, OutputStream out, boolean includePlates) throws IOException {
+        long owners = 0;
+        Long previousOwner = null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(includePlates
+                ? "id,name,nationalId,phone,address,email,plateNumber,issuedDate,inUse\n"
+                : "id,name,nationalId,phone,address,email\n");
+        while (rows.hasNext()) {
+            OwnerExportRow row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writeCsvField(writer, row.getName());
+            writeCsvField(writer, row.getNationalId());
+            writeCsvField(writer, row.getPhone());
+            writeCsvField(writer, row.getAddress());
+            writeCsvField(writer, row.getEmail());
+            if (includePlates) {
+                writeCsvField(writer, row.getPlateNumber());
+                writeCsvField(writer, row.getIssuedDate() != null ? row.getIssuedDate().toString() : null);
+                writeCsvField(writer, row.getPlateNumber() != null ? String.valueOf(Boolean.TRUE.equals(row.getInUse())) : null);
+            }
+            writer.write('\n');
+            writer.flush();
+
+            if (!row.getId().equals(previousOwner)) {
+                owners++;
+                previousOwner = row.getId();
+            }
+        }
+        writer.flush();
+        return owners;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
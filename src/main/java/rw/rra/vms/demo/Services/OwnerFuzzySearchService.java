@@ -0,0 +1,42 @@
+package rw.rra.vms.demo.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.OwnerSearchHit;
+
+import java.util.List;
+
+/**
+ * Prefix and typo-tolerant owner search over the trigram indexes (see {@link VehicleOwnerRepository#fuzzySearch}).
+ * pg_trgm's default word similarity threshold of 0.6 misses most single typos in short names and plates, so each
+ * search lowers it for its own transaction only.
+ */
+@Service
+public class OwnerFuzzySearchService {
+
+    private final VehicleOwnerRepository ownerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String similarityThreshold;
+
+    public OwnerFuzzySearchService(VehicleOwnerRepository ownerRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${owners.search.fuzzy.similarity-threshold:0.4}") double similarityThreshold) {
+        this.ownerRepository = ownerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.similarityThreshold = Double.toString(similarityThreshold);
+    }
+
+    public List<OwnerSearchHit> search(String query, int limit) {
+        return readOnlyTransaction.execute(status -> {
+            ownerRepository.setWordSimilarityThreshold(similarityThreshold);
+            return ownerRepository.fuzzySearch(query, limit).stream()
+                    .map(row -> new OwnerSearchHit(row.getId(), row.getName(), row.getNationalId(), row.getPhone(),
+                            row.getAddress(), row.getEmail(), row.getMatchedOn(), row.getMatchedValue(), row.getScore()))
+                    .toList();
+        });
+    }
+}
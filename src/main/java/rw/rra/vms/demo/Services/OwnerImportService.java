@@ -0,0 +1,678 @@
+package rw.rra.vms.demo.Services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import rw.rra.vms.demo.dtos.ImportJobStatus;
+import rw.rra.vms.demo.dtos.PlateNumberDto;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Imports owners and their plates from CSV files of any size as background jobs.
+ * <p>
+ * The file has a header row naming the columns {@code name, nationalId, phone, address, email} and optionally
+ * {@code plateNumber, issuedDate, inUse}, in any order (other columns, such as the export's {@code id}, are ignored).
+ * Each row is one owner and at most one plate; an owner with several plates repeats its columns on every row.
+ * <p>
+ * A job runs in two steps, one job at a time:
+ * <ol>
+ *     <li>Loading: the uploaded file is parsed as a stream and every row is validated with the
+ *     {@link VehicleOwnerDto} and {@link PlateNumberDto} rules, then copied into owner_import_row with
+ *     {@code COPY}, in chunks. Each chunk commits together with the job's progress, which is the checkpoint
+ *     a restarted job resumes from.</li>
+ *     <li>Resolving: one transaction of set-based statements. It rejects plates repeated in the file or already
+ *     registered, creates owners whose national ID is new (from their first row), resolves every row to its owner
+ *     id, inserts the plates, and writes the rejected rows with their reasons to a CSV file.</li>
+ * </ol>
+ * Rows are not audited one by one; the audit trail records the job, whose row keeps the counts.
+ */
+@Service
+public class OwnerImportService {
+
+    public enum Status { QUEUED, LOADING, RESOLVING, COMPLETED, FAILED }
+
+    public static final String ENTITY = "owner_import";
+
+    private static final Logger logger = LoggerFactory.getLogger(OwnerImportService.class);
+
+    private static final List<String> OWNER_COLUMNS = List.of("name", "nationalId", "phone", "address", "email");
+    private static final List<String> PLATE_COLUMNS = List.of("plateNumber", "issuedDate", "inUse");
+
+    // Must match the allocationSize of VehicleOwner's sequence generator: Hibernate uses nextval - 49 .. nextval
+    private static final int OWNER_ID_BLOCK = 50;
+
+    private static final String REJECTED_SUFFIX = "-rejected.csv";
+
+    private static final String COPY_ROWS = "COPY owner_import_row (job_id, line_no, name, national_id, phone, address, " +
+            "email, plate_number, issued_date, in_use, reject_reason) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final PlateIndex plateIndex;
+    private final OwnerLookupCache ownerLookupCache;
+    private final RegistrationMetrics registrationMetrics;
+    private final AuditLog auditLog;
+    private final Path directory;
+    private final int chunkSize;
+    private final String node;
+    private final Duration rejectedRetention;
+    private final ExecutorService worker;
+
+    public OwnerImportService(JdbcTemplate jdbcTemplate,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              PlateIndex plateIndex,
+                              OwnerLookupCache ownerLookupCache,
+                              RegistrationMetrics registrationMetrics,
+                              AuditLog auditLog,
+                              @Value("${owners.import.directory:${java.io.tmpdir}/vms-imports}") Path directory,
+                              @Value("${owners.import.chunk-size:20000}") int chunkSize,
+                              @Value("${owners.import.node:}") String node,
+                              @Value("${owners.import.rejected-retention:7d}") Duration rejectedRetention) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1000);
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.plateIndex = plateIndex;
+        this.ownerLookupCache = ownerLookupCache;
+        this.registrationMetrics = registrationMetrics;
+        this.auditLog = auditLog;
+        this.directory = Files.createDirectories(directory);
+        this.chunkSize = chunkSize;
+        this.node = node.isBlank() ? InetAddress.getLocalHost().getHostName() : node;
+        this.rejectedRetention = rejectedRetention;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "owner-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stores the upload next to the other job files and queues the job.
+     * @return The new job, QUEUED.
+     */
+    public ImportJobStatus submit(MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload.csv";
+        Instant now = Instant.now();
+        Long jobId = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                "INSERT INTO owner_import_job (file_name, file_size, status, node, created_by, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id", Long.class,
+                truncate(fileName, 255), file.getSize(), Status.QUEUED.name(), node, AuditLog.currentActor(),
+                Timestamp.from(now), Timestamp.from(now)));
+        // A disk-backed part is moved rather than copied
+        file.transferTo(uploadPath(jobId));
+        auditLog.created(ENTITY, String.valueOf(jobId));
+        logger.info("Queued owner import {} of {} ({} bytes)", jobId, fileName, file.getSize());
+
+        worker.execute(() -> run(jobId));
+        return status(jobId).orElseThrow();
+    }
+
+    public Optional<ImportJobStatus> status(long jobId) {
+        return jdbcTemplate.query("SELECT * FROM owner_import_job WHERE id = ?", (rs, rowNum) -> {
+            long fileSize = rs.getLong("file_size");
+            long bytesRead = rs.getLong("bytes_read");
+            double percent = fileSize > 0 ? Math.round(1000.0 * bytesRead / fileSize) / 10.0 : 100.0;
+            return new ImportJobStatus(rs.getLong("id"), rs.getString("file_name"), rs.getString("status"),
+                    fileSize, bytesRead, percent, rs.getLong("rows_read"), rs.getLong("rows_rejected"),
+                    rs.getLong("owners_created"), rs.getLong("plates_created"), rs.getString("error"),
+                    rs.getString("created_by"), rs.getTimestamp("created_at").toInstant(),
+                    rs.getTimestamp("updated_at").toInstant());
+        }, jobId).stream().findFirst();
+    }
+
+    /**
+     * @return The rejected rows of a completed job as CSV, if it had any and they are not older than
+     * {@code owners.import.rejected-retention}.
+     */
+    public Optional<Path> rejectedRows(long jobId) {
+        Path path = rejectedPath(jobId);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Requeues the jobs a previous run of this node left unfinished, and drops what its finished jobs left behind
+     * and the expired rejected-row files.
+     * Other nodes' jobs are left to them: their uploads are on the other nodes' disks and their staging rows may be
+     * in use. The node is {@code owners.import.node}, by default the host name, so it must stay the same across
+     * restarts; a job whose node never comes back stays unfinished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        List<Long> finished = jdbcTemplate.queryForList(
+                "SELECT DISTINCT r.job_id FROM owner_import_row r JOIN owner_import_job j ON j.id = r.job_id " +
+                        "WHERE j.status IN ('COMPLETED', 'FAILED') AND j.node = ?", Long.class, node);
+        finished.forEach(this::cleanUp);
+        deleteExpiredRejectedRows();
+
+        // Jobs queued before jobs recorded their node go to the first node to claim them
+        List<Long> unfinished = transactionTemplate.execute(tx -> jdbcTemplate.queryForList(
+                "WITH claimed AS (UPDATE owner_import_job SET node = ? WHERE status IN ('QUEUED', 'LOADING', 'RESOLVING') " +
+                        "AND (node = ? OR node IS NULL) RETURNING id) SELECT id FROM claimed ORDER BY id",
+                Long.class, node, node));
+        for (Long jobId : unfinished) {
+            logger.info("Resuming owner import {}", jobId);
+            worker.execute(() -> run(jobId));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // An interrupted job keeps its last checkpoint and resumes on the next start
+        worker.shutdownNow();
+    }
+
+    private void run(long jobId) {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Object> job = jdbcTemplate.queryForMap(
+                    "SELECT status, rows_read FROM owner_import_job WHERE id = ?", jobId);
+            Status status = Status.valueOf((String) job.get("status"));
+            long rowsRead = ((Number) job.get("rows_read")).longValue();
+
+            Long staged = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM owner_import_row WHERE job_id = ?", Long.class, jobId);
+            if (staged != rowsRead) {
+                // Unlogged rows are gone after a crash: read the file again from the start
+                logger.warn("Owner import {} has {} of its {} rows staged, reloading the file", jobId, staged, rowsRead);
+                transactionTemplate.executeWithoutResult(tx -> {
+                    jdbcTemplate.update("DELETE FROM owner_import_row WHERE job_id = ?", jobId);
+                    jdbcTemplate.update("UPDATE owner_import_job SET status = ?, rows_read = 0, rows_rejected = 0, " +
+                            "bytes_read = 0, updated_at = ? WHERE id = ?", Status.LOADING.name(), now(), jobId);
+                });
+                status = Status.LOADING;
+                rowsRead = 0;
+            }
+
+            if (status != Status.RESOLVING) {
+                load(jobId, rowsRead);
+            }
+            long loaded = System.currentTimeMillis();
+            Resolved resolved = resolve(jobId);
+            afterResolve(jobId, resolved);
+            logger.info("Owner import {} completed in {} ms ({} ms loading): {} owners and {} plates created, {} rows rejected",
+                    jobId, System.currentTimeMillis() - start, loaded - start, resolved.owners(), resolved.plates(),
+                    resolved.rejected());
+        } catch (Exception ex) {
+            if (Thread.currentThread().isInterrupted()) {
+                logger.info("Owner import {} interrupted, it resumes on the next start", jobId);
+                return;
+            }
+            // A job that committed COMPLETED keeps it: only what follows the commit (rejected file, afterResolve) failed
+            Integer failed = transactionTemplate.execute(tx -> jdbcTemplate.update(
+                    "UPDATE owner_import_job SET status = ?, error = ?, updated_at = ? " +
+                            "WHERE id = ? AND status IN ('QUEUED', 'LOADING', 'RESOLVING')",
+                    Status.FAILED.name(), truncate(String.valueOf(ex.getMessage()), 1000), now(), jobId));
+            if (failed != null && failed > 0) {
+                logger.error("Owner import {} failed", jobId, ex);
+            } else {
+                logger.error("Owner import {} completed, but what follows its commit failed", jobId, ex);
+            }
+            cleanUp(jobId);
+        }
+        deleteExpiredRejectedRows();
+    }
+
+    /**
+     * Deletes the rejected-row files written more than {@code owners.import.rejected-retention} ago. Their jobs keep
+     * their counts; only the download goes away. Files are only written by jobs, so running after each job (and on
+     * start) is enough to keep the directory bounded.
+     */
+    void deleteExpiredRejectedRows() {
+        Instant cutoff = Instant.now().minus(rejectedRetention);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(REJECTED_SUFFIX)).toList();
+        } catch (IOException ex) {
+            logger.warn("Could not list the owner import directory {}", directory, ex);
+            return;
+        }
+        for (Path file : files) {
+            try {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    logger.info("Deleted expired rejected rows {}", file.getFileName());
+                }
+            } catch (IOException ex) {
+                logger.warn("Could not delete expired rejected rows {}", file, ex);
+            }
+        }
+    }
+
+    /**
+     * Streams the file into owner_import_row, skipping the rows an earlier run already committed.
+     */
+    private void load(long jobId, long rowsAlreadyRead) throws IOException {
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(uploadPath(jobId)))) {
+            CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            Map<String, Integer> columns = columns(header);
+
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream(1 << 20);
+            long rowsRead = 0;
+            long rowsRejected = 0;
+            int chunkRows = 0;
+            int chunkRejected = 0;
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                rowsRead++;
+                if (rowsRead <= rowsAlreadyRead) {
+                    continue;
+                }
+
+                String[] values = new String[8];
+                String rejectReason = null;
+                if (record.size() != header.size()) {
+                    rejectReason = "Expected " + header.size() + " fields, found " + record.size();
+                }
+                for (int i = 0; i < values.length; i++) {
+                    Integer column = columns.get(i < 5 ? OWNER_COLUMNS.get(i) : PLATE_COLUMNS.get(i - 5));
+                    if (column != null && column < record.size() && !record.get(column).isEmpty()) {
+                        values[i] = record.get(column);
+                    }
+                }
+                if (rejectReason == null) {
+                    rejectReason = validate(values);
+                }
+                if (rejectReason != null) {
+                    chunkRejected++;
+                }
+
+                writeCopyRow(chunk, jobId, reader.recordLine(), values, rejectReason);
+                if (++chunkRows == chunkSize) {
+                    rowsRejected += chunkRejected;
+                    commitChunk(jobId, chunk, rowsRead, rowsRejected, in.count(), Status.LOADING);
+                    chunkRows = 0;
+                    chunkRejected = 0;
+                }
+            }
+            rowsRejected += chunkRejected;
+            commitChunk(jobId, chunk, rowsRead, rowsRejected, in.count(), Status.RESOLVING);
+        }
+    }
+
+    private static Map<String, Integer> columns(List<String> header) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            for (String known : OWNER_COLUMNS) {
+                if (known.equalsIgnoreCase(name)) {
+                    columns.put(known, i);
+                }
+            }
+            for (String known : PLATE_COLUMNS) {
+                if (known.equalsIgnoreCase(name)) {
+                    columns.put(known, i);
+                }
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : OWNER_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IOException("Header is missing the columns " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    /**
+     * Applies the same rules as the single registration endpoints. A row without plate number and issue date
+     * registers the owner only.
+     * @return The failed fields and messages, or null when the row is valid.
+     */
+    private String validate(String[] values) {
+        Map<String, String> errors = new TreeMap<>();
+
+        VehicleOwnerDto owner = new VehicleOwnerDto();
+        owner.setName(values[0]);
+        owner.setNationalId(values[1]);
+        owner.setPhone(values[2]);
+        owner.setAddress(values[3]);
+        owner.setEmail(values[4]);
+        collect(validator.validate(owner), errors);
+
+        if (values[5] != null || values[6] != null) {
+            PlateNumberDto plate = new PlateNumberDto();
+            plate.setPlateNumber(values[5]);
+            try {
+                plate.setIssuedDate(values[6] != null ? LocalDate.parse(values[6]) : null);
+            } catch (DateTimeParseException ex) {
+                errors.put("issuedDate", "Issued date must be a date (yyyy-MM-dd)");
+            }
+            if (values[7] != null && !values[7].equalsIgnoreCase("true") && !values[7].equalsIgnoreCase("false")) {
+                errors.put("inUse", "In use must be true or false");
+            }
+            Set<ConstraintViolation<PlateNumberDto>> violations = validator.validate(plate);
+            violations.removeIf(violation -> errors.containsKey(violation.getPropertyPath().toString()));
+            collect(violations, errors);
+        }
+
+        if (errors.isEmpty()) {
+            return null;
+        }
+        StringBuilder reason = new StringBuilder();
+        errors.forEach((field, message) -> reason.append(reason.isEmpty() ? "" : "; ").append(field).append(": ").append(message));
+        return reason.toString();
+    }
+
+    private static <T> void collect(Set<ConstraintViolation<T>> violations, Map<String, String> errors) {
+        for (ConstraintViolation<T> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+    }
+
+    private static void writeCopyRow(ByteArrayOutputStream out, long jobId, long line, String[] values,
+                                     String rejectReason) {
+        StringBuilder row = new StringBuilder(160);
+        row.append(jobId).append(',').append(line);
+        for (String value : values) {
+            appendCopyField(row, value);
+        }
+        appendCopyField(row, rejectReason);
+        row.append('\n');
+        out.writeBytes(row.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // In COPY's CSV format an unquoted empty field is NULL, so every value is quoted
+    private static void appendCopyField(StringBuilder row, String value) {
+        row.append(',');
+        if (value != null) {
+            row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private void commitChunk(long jobId, ByteArrayOutputStream chunk, long rowsRead, long rowsRejected,
+                             long bytesRead, Status status) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (chunk.size() > 0) {
+                copyIn(COPY_ROWS, chunk.toByteArray());
+            }
+            jdbcTemplate.update("UPDATE owner_import_job SET status = ?, rows_read = ?, rows_rejected = ?, " +
+                    "bytes_read = ?, updated_at = ? WHERE id = ?", status.name(), rowsRead, rowsRejected, bytesRead, now(), jobId);
+        });
+        chunk.reset();
+    }
+
+    private record Resolved(long owners, long plates, long rejected) {
+    }
+
+    /**
+     * Resolves the staged rows with set-based statements in one transaction, so a failure leaves nothing half done.
+     * An owner whose national ID is already registered is reused as is; a new one is created from its first row.
+     */
+    private Resolved resolve(long jobId) {
+        Path rejectedFile = rejectedPath(jobId);
+        Path partialFile = directory.resolve(jobId + "-rejected.csv.part");
+        try {
+            // Left over from an attempt that rolled back
+            Files.deleteIfExists(partialFile);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Resolved resolved = transactionTemplate.execute(tx -> {
+            jdbcTemplate.execute("ANALYZE owner_import_row");
+
+            jdbcTemplate.update("UPDATE owner_import_row r SET reject_reason = 'Plate number repeated in file (line ' || f.first_line || ')' " +
+                    "FROM (SELECT plate_number, min(line_no) AS first_line FROM owner_import_row " +
+                    "WHERE job_id = ? AND reject_reason IS NULL AND plate_number IS NOT NULL " +
+                    "GROUP BY plate_number HAVING count(*) > 1) f " +
+                    "WHERE r.job_id = ? AND r.reject_reason IS NULL AND r.plate_number = f.plate_number AND r.line_no > f.first_line",
+                    jobId, jobId);
+            jdbcTemplate.update("UPDATE owner_import_row r SET reject_reason = 'Plate number already exists' " +
+                    "FROM plate_number p WHERE r.job_id = ? AND r.reject_reason IS NULL AND p.plate_number = r.plate_number",
+                    jobId);
+
+            // New owners, each taken from the first valid row of its national ID
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE owner_import_new_owner ON COMMIT DROP AS " +
+                    "SELECT DISTINCT ON (r.national_id) r.national_id, r.line_no, r.name, r.phone, r.address, r.email " +
+                    "FROM owner_import_row r WHERE r.job_id = " + jobId + " AND r.reject_reason IS NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM vehicle_owner o WHERE o.national_id = r.national_id) " +
+                    "ORDER BY r.national_id, r.line_no");
+            rejectNewOwners("Email already exists", jobId,
+                    "SELECT n.national_id FROM owner_import_new_owner n " +
+                            "WHERE EXISTS (SELECT 1 FROM vehicle_owner o WHERE lower(o.email) = lower(n.email))");
+            rejectNewOwners("Email repeated in file for another national ID", jobId,
+                    "SELECT n.national_id FROM owner_import_new_owner n WHERE EXISTS (SELECT 1 FROM owner_import_new_owner m " +
+                            "WHERE lower(m.email) = lower(n.email) AND m.line_no < n.line_no)");
+
+            // Ids come in blocks from the entity's sequence, the way Hibernate's pooled optimizer uses them
+            Long newOwners = jdbcTemplate.queryForObject("SELECT count(*) FROM owner_import_new_owner", Long.class);
+            Long[] blocks = ownerIdBlocks((newOwners + OWNER_ID_BLOCK - 1) / OWNER_ID_BLOCK);
+            int owners = jdbcTemplate.update("WITH numbered AS (SELECT n.*, row_number() OVER (ORDER BY n.line_no) - 1 AS r " +
+                            "FROM owner_import_new_owner n), " +
+                            "blocks AS (SELECT b - 1 AS b, hi FROM unnest(cast(? AS bigint[])) WITH ORDINALITY AS k(hi, b)) " +
+                            "INSERT INTO vehicle_owner (id, name, national_id, phone, address, email) " +
+                            "SELECT k.hi - " + (OWNER_ID_BLOCK - 1) + " + n.r % " + OWNER_ID_BLOCK + ", n.name, n.national_id, " +
+                            "n.phone, n.address, n.email FROM numbered n JOIN blocks k ON k.b = n.r / " + OWNER_ID_BLOCK + " " +
+                            "ON CONFLICT DO NOTHING",
+                    (Object) blocks);
+            // Left without an owner by a registration that took the national ID or email since the checks above
+            jdbcTemplate.update("UPDATE owner_import_row r SET reject_reason = 'National ID or email already exists' " +
+                    "WHERE r.job_id = ? AND r.reject_reason IS NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM vehicle_owner o WHERE o.national_id = r.national_id)", jobId);
+
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE owner_import_new_plate (plate_number text PRIMARY KEY) ON COMMIT DROP");
+            int plates = jdbcTemplate.update("WITH inserted AS (" +
+                    "INSERT INTO plate_number (owner_id, plate_number, issued_date, in_use) " +
+                    "SELECT o.id, r.plate_number, cast(r.issued_date AS date), coalesce(cast(r.in_use AS boolean), false) " +
+                    "FROM owner_import_row r JOIN vehicle_owner o ON o.national_id = r.national_id " +
+                    "WHERE r.job_id = ? AND r.reject_reason IS NULL AND r.plate_number IS NOT NULL " +
+                    "ON CONFLICT (plate_number) DO NOTHING RETURNING plate_number) " +
+                    "INSERT INTO owner_import_new_plate SELECT plate_number FROM inserted", jobId);
+            jdbcTemplate.update("UPDATE owner_import_row r SET reject_reason = 'Plate number already exists' " +
+                    "WHERE r.job_id = ? AND r.reject_reason IS NULL AND r.plate_number IS NOT NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM owner_import_new_plate p WHERE p.plate_number = r.plate_number)", jobId);
+
+            Long rejected = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM owner_import_row WHERE job_id = ? AND reject_reason IS NOT NULL", Long.class, jobId);
+            if (rejected > 0) {
+                writeRejected(jobId, partialFile);
+            }
+            jdbcTemplate.update("UPDATE owner_import_job SET status = ?, rows_rejected = ?, owners_created = ?, " +
+                            "plates_created = ?, updated_at = ? WHERE id = ?",
+                    Status.COMPLETED.name(), rejected, owners, plates, now(), jobId);
+            return new Resolved(owners, plates, rejected);
+        });
+        try {
+            if (Files.exists(partialFile)) {
+                Files.move(partialFile, rejectedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return resolved;
+    }
+
+    private void rejectNewOwners(String reason, long jobId, String nationalIds) {
+        jdbcTemplate.update("UPDATE owner_import_row r SET reject_reason = ? WHERE r.job_id = ? AND r.reject_reason IS NULL " +
+                "AND r.national_id IN (" + nationalIds + ")", reason, jobId);
+        jdbcTemplate.update("DELETE FROM owner_import_new_owner WHERE national_id IN (" + nationalIds + ")");
+    }
+
+    /**
+     * Draws the upper ends of as many id blocks from vehicle_owner_seq. The sequence's first value is not the top of
+     * a block: Hibernate's pooled optimizer starts counting up from it instead (and takes the next value as the top),
+     * so it is skipped here, which also keeps the block above zero.
+     */
+    private Long[] ownerIdBlocks(long count) {
+        List<Long> blocks = new ArrayList<>();
+        while (blocks.size() < count) {
+            jdbcTemplate.queryForList("SELECT nextval('vehicle_owner_seq') FROM generate_series(1, ?)", Long.class,
+                            count - blocks.size()).stream()
+                    .filter(hi -> hi >= OWNER_ID_BLOCK)
+                    .forEach(blocks::add);
+        }
+        return blocks.toArray(Long[]::new);
+    }
+
+    private void writeRejected(long jobId, Path file) {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            copyOut("COPY (SELECT line_no AS line, name, national_id AS \"nationalId\", phone, address, email, " +
+                    "plate_number AS \"plateNumber\", issued_date AS \"issuedDate\", in_use AS \"inUse\", " +
+                    "reject_reason AS reason FROM owner_import_row WHERE job_id = " + jobId + " " +
+                    "AND reject_reason IS NOT NULL ORDER BY line_no) TO STDOUT WITH (FORMAT csv, HEADER)", out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * The inserts bypassed JPA, so the listeners that keep the plate index and the owner lookup cache current
+     * did not run. Until this has run (or after a crash, until the next start rebuilds them)
+     * imported plates are only missing from the in-memory structures, never wrongly reported.
+     */
+    private void afterResolve(long jobId, Resolved resolved) {
+        transactionTemplate.executeWithoutResult(tx -> streamingJdbcTemplate.query(
+                "SELECT r.plate_number, o.id, cast(r.issued_date AS date) AS issued_date, " +
+                        "coalesce(cast(r.in_use AS boolean), false) AS in_use " +
+                        "FROM owner_import_row r JOIN vehicle_owner o ON o.national_id = r.national_id " +
+                        "WHERE r.job_id = ? AND r.reject_reason IS NULL AND r.plate_number IS NOT NULL",
+                rs -> {
+                    plateIndex.put(new PlateOwnerView(rs.getString(1), rs.getLong(2),
+                            rs.getObject(3, LocalDate.class), rs.getBoolean(4)));
+                }, jobId));
+        ownerLookupCache.evictMissing();
+        registrationMetrics.created(RegistrationMetrics.OWNER, (int) resolved.owners());
+        registrationMetrics.created(RegistrationMetrics.PLATE, (int) resolved.plates());
+        cleanUp(jobId);
+    }
+
+    private void cleanUp(long jobId) {
+        try {
+            transactionTemplate.executeWithoutResult(tx ->
+                    jdbcTemplate.update("DELETE FROM owner_import_row WHERE job_id = ?", jobId));
+            Files.deleteIfExists(uploadPath(jobId));
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not clean up owner import {}", jobId, ex);
+        }
+    }
+
+    private void copyIn(String sql, byte[] data) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new ByteArrayInputStream(data));
+        } catch (SQLException | IOException ex) {
+            throw new IllegalStateException("COPY into owner_import_row failed: " + ex.getMessage(), ex);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void copyOut(String sql, OutputStream out) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+        } catch (SQLException | IOException ex) {
+            throw new IllegalStateException("COPY of rejected rows failed: " + ex.getMessage(), ex);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private Path uploadPath(long jobId) {
+        return directory.resolve(jobId + ".csv");
+    }
+
+    private Path rejectedPath(long jobId) {
+        return directory.resolve(jobId + REJECTED_SUFFIX);
+    }
+
+    private static Timestamp now() {
+        return Timestamp.from(Instant.now());
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package rw.rra.vms.demo.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for the owner search lookups, keyed by national ID and by phone.
+ * Misses are cached too, for a shorter time, so repeated probes for unknown values stay off the database.
+ * Writers call {@link #evict(VehicleOwner)}; a load that overlaps an eviction of its key, or of the owner it found,
+ * is not cached, so a lookup racing a registration cannot pin a stale "not found". Evictions are stamped from one
+ * clock into stripes by key and by owner id, so writes to other owners do not stop lookups from being cached
+ * (a collision in a stripe only skips caching one load). Misses load on the primary, in a read-write
+ * transaction, as a read from a lagging replica would be cached for the whole TTL, past the replica's lag and past
+ * the writing client's read-your-writes window.
+ * Hit, miss, eviction and size metrics are published as {@code cache.*} meters named
+ * {@code owners.byNationalId} and {@code owners.byPhone}.
+ */
+@Component
+public class OwnerLookupCache {
+
+    private static final int STRIPES = 1024;
+
+    private final VehicleOwnerRepository ownerRepository;
+    private final TransactionTemplate primaryRead;
+    private final Lookup byNationalId;
+    private final Lookup byPhone;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLongArray ownersEvictedAt = new AtomicLongArray(STRIPES);
+    private final AtomicLong missesEvictedAt = new AtomicLong();
+
+    public OwnerLookupCache(VehicleOwnerRepository ownerRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${owners.cache.max-size:100000}") long maxSize,
+                            @Value("${owners.cache.ttl:10m}") Duration ttl,
+                            @Value("${owners.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.ownerRepository = ownerRepository;
+        // Not read-only, so it is not routed to a replica, and not joining the caller's read-only transaction
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.byNationalId = new Lookup(maxSize, ttl, negativeTtl);
+        this.byPhone = new Lookup(maxSize, ttl, negativeTtl);
+        CaffeineCacheMetrics.monitor(meterRegistry, byNationalId.cache, "owners.byNationalId");
+        CaffeineCacheMetrics.monitor(meterRegistry, byPhone.cache, "owners.byPhone");
+    }
+
+    public Optional<VehicleOwnerDto> findByNationalId(String nationalId) {
+        return lookup(byNationalId, nationalId, ownerRepository::findByNationalId);
+    }
+
+    public Optional<VehicleOwnerDto> findByPhone(String phone) {
+        return lookup(byPhone, phone, ownerRepository::findByPhone);
+    }
+
+    /**
+     * Drops the entries for the owner's current national ID and phone, plus any entry still pointing
+     * at the owner's id under an old value (after an update that changed them). Constant time: the
+     * entries of an id are found through the keys recorded when they were cached.
+     */
+    public void evict(VehicleOwner owner) {
+        long now = clock.incrementAndGet();
+        byNationalId.evictedAt(owner.getNationalId(), now);
+        byPhone.evictedAt(owner.getPhone(), now);
+        if (owner.getId() != null) {
+            ownersEvictedAt.accumulateAndGet(stripe(owner.getId().hashCode()), now, Math::max);
+        }
+        byNationalId.invalidate(owner.getNationalId());
+        byPhone.invalidate(owner.getPhone());
+        if (owner.getId() != null) {
+            byNationalId.invalidateOwner(owner.getId());
+            byPhone.invalidateOwner(owner.getId());
+        }
+    }
+
+    /**
+     * Drops every "not found" entry, after owners were added without going through JPA (a file import).
+     */
+    public void evictMissing() {
+        missesEvictedAt.set(clock.incrementAndGet());
+        byNationalId.cache.asMap().values().removeIf(Optional::isEmpty);
+        byPhone.cache.asMap().values().removeIf(Optional::isEmpty);
+    }
+
+    // Loads outside the cache's own locking (no compute) so a slow query never blocks other keys
+    private Optional<VehicleOwnerDto> lookup(Lookup lookup, String key, Function<String, Optional<VehicleOwner>> loader) {
+        Optional<CachedOwner> cached = lookup.cache.getIfPresent(key);
+        if (cached == null) {
+            long started = clock.get();
+            cached = primaryRead.execute(status -> loader.apply(key).map(CachedOwner::of));
+            long evicted = cached.map(owner -> ownersEvictedAt.get(stripe(owner.id().hashCode())))
+                    .orElseGet(missesEvictedAt::get);
+            if (lookup.evictedAt(key) <= started && evicted <= started) {
+                lookup.put(key, cached);
+            }
+        }
+        return cached.map(CachedOwner::dto);
+    }
+
+    private static int stripe(int hash) {
+        return Math.floorMod(hash, STRIPES);
+    }
+
+    private record CachedOwner(Long id, VehicleOwnerDto dto) {
+        static CachedOwner of(VehicleOwner owner) {
+            return new CachedOwner(owner.getId(), VehicleOwnerMapper.toDto(owner));
+        }
+    }
+
+    /**
+     * One lookup's cache, with the keys its owners are cached under by owner id.
+     */
+    private static final class Lookup {
+
+        private final Cache<String, Optional<CachedOwner>> cache;
+        private final Map<Long, Set<String>> keysByOwner = new ConcurrentHashMap<>();
+        private final AtomicLongArray keysEvictedAt = new AtomicLongArray(STRIPES);
+
+        Lookup(long maxSize, Duration ttl, Duration negativeTtl) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(Expiry.creating((String key, Optional<CachedOwner> owner) -> owner.isPresent() ? ttl : negativeTtl))
+                    // Size and expiry evictions; explicit removals go through invalidate
+                    .evictionListener((String key, Optional<CachedOwner> owner, RemovalCause cause) -> forget(key, owner))
+                    .recordStats()
+                    .build();
+        }
+
+        // The clock time of the key's latest eviction, or of another key's sharing its stripe
+        long evictedAt(String key) {
+            return keysEvictedAt.get(stripe(key.hashCode()));
+        }
+
+        void evictedAt(String key, long now) {
+            keysEvictedAt.accumulateAndGet(stripe(key.hashCode()), now, Math::max);
+        }
+
+        void put(String key, Optional<CachedOwner> owner) {
+            owner.ifPresent(cached -> keysByOwner.computeIfAbsent(cached.id(), id -> ConcurrentHashMap.newKeySet()).add(key));
+            Optional<CachedOwner> replaced = cache.asMap().put(key, owner);
+            if (replaced != null && !replaced.map(CachedOwner::id).equals(owner.map(CachedOwner::id))) {
+                forget(key, replaced);
+            }
+        }
+
+        void invalidate(String key) {
+            Optional<CachedOwner> removed = cache.asMap().remove(key);
+            if (removed != null) {
+                forget(key, removed);
+            }
+        }
+
+        // Only the entries that still point at the owner: a phone may be cached for another owner by now
+        void invalidateOwner(Long id) {
+            Set<String> keys = keysByOwner.remove(id);
+            if (keys != null) {
+                keys.forEach(key -> cache.asMap().computeIfPresent(key,
+                        (k, owner) -> owner.map(cached -> id.equals(cached.id())).orElse(false) ? null : owner));
+            }
+        }
+
+        private void forget(String key, Optional<CachedOwner> owner) {
+            owner.ifPresent(cached -> keysByOwner.computeIfPresent(cached.id(), (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            }));
+        }
+    }
+}
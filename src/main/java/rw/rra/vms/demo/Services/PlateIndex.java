@@ -0,0 +1,489 @@
+package rw.rra.vms.demo.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rw.rra.vms.demo.Repositories.PlateNumberRepository;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index from plate number to owner id, issue date and in-use flag, serving the plate reverse lookup.
+ * <p>
+ * Plates are kept in parallel primitive arrays rather than as objects (see {@link Table}): 14 bytes per slot, or
+ * 19-23 bytes per plate at the default load factor, so 10M plates take about 220 MiB. Lookups take an optimistic
+ * {@link StampedLock} read and only fall back to the read lock when a write raced with them; writes are serialized.
+ * <p>
+ * The index is built from the table in the background once the application is ready and updated after every
+ * committed plate insert, update or delete on this node (see {@code PlateChangeListener}). Until the build finishes,
+ * lookups go to the database. Plates the arrays cannot hold (characters outside {@code [A-Z0-9]}, owner ids above
+ * 2^32, dates outside 1900-2079) are kept in a small map next to them.
+ * <p>
+ * Other nodes write to the same table, so a plate missing from the index is looked up in the database and added
+ * when found, and every {@code plates.index.refresh-interval} the plates written since the previous refresh are
+ * read again. A plate not found there either is remembered as missing for {@code plates.index.miss-ttl}, so
+ * repeated lookups of an unregistered plate do not all reach the database: one registered on another node meanwhile
+ * is found after at most that long, or by the next refresh. Plates are not deleted through the API; one deleted on
+ * another node stays here until a restart.
+ */
+@Component
+public class PlateIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlateIndex.class);
+
+    private final PlateNumberRepository plateNumberRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double loadFactor;
+    private final int minCapacity;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, PlateOwnerView> overflow = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> misses;
+    private final Duration refreshInterval;
+    private Table table;
+    private volatile boolean ready;
+    private Instant refreshedFrom;
+    private ScheduledExecutorService background;
+
+    public PlateIndex(PlateNumberRepository plateNumberRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${plates.index.load-factor:0.75}") double loadFactor,
+                      @Value("${plates.index.min-capacity:1000000}") int minCapacity,
+                      @Value("${plates.index.refresh-interval:1m}") Duration refreshInterval,
+                      @Value("${plates.index.miss-ttl:5s}") Duration missTtl,
+                      @Value("${plates.index.max-misses:100000}") long maxMisses) {
+        this.plateNumberRepository = plateNumberRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadFactor = loadFactor;
+        this.minCapacity = minCapacity;
+        this.refreshInterval = refreshInterval;
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(missTtl.isZero() ? 0 : maxMisses)
+                .expireAfterWrite(missTtl)
+                .build();
+        this.table = new Table(Table.slotsFor(minCapacity, loadFactor));
+    }
+
+    /**
+     * Builds the index, then refreshes it every refresh interval (a zero interval turns refreshing off), all on one
+     * background thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plate-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.execute(this::build);
+        if (!refreshInterval.isZero()) {
+            long interval = refreshInterval.toMillis();
+            background.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (background != null) {
+            background.shutdownNow();
+        }
+    }
+
+    /**
+     * Sizes the index for the current row count and streams every plate into it. Rows already put by a write
+     * that committed during the build are newer than the streamed ones and are kept.
+     */
+    void build() {
+        try {
+            long start = System.nanoTime();
+            Instant started = Instant.now();
+            long count = plateNumberRepository.count();
+            long stamp = lock.writeLock();
+            try {
+                table = table.resized(Table.slotsFor(Math.max(minCapacity, count + count / 4), loadFactor));
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+
+            Long loaded = readOnlyTransaction.execute(status -> {
+                try (Stream<PlateOwnerView> plates = plateNumberRepository.streamAllOwnerViews()) {
+                    long rows = 0;
+                    for (PlateOwnerView plate : (Iterable<PlateOwnerView>) plates::iterator) {
+                        put(plate, false);
+                        rows++;
+                    }
+                    return rows;
+                }
+            });
+            refreshedFrom = started;
+            ready = true;
+
+            logger.info("Plate index built: {} plates in {} ms, {} slots, {} KiB, {} outside the packed table",
+                    loaded, (System.nanoTime() - start) / 1_000_000, table.capacity(), table.memoryBytes() / 1024,
+                    overflow.size());
+        } catch (RuntimeException ex) {
+            logger.error("Plate index build failed, lookups stay on the database", ex);
+        }
+    }
+
+    /**
+     * Re-reads the plates written since the previous refresh started, reaching back one more interval for writes
+     * that committed after it read. Newer entries put meanwhile by this node are replaced by what the table holds.
+     */
+    void refresh() {
+        if (!ready) {
+            return;
+        }
+        Instant started = Instant.now();
+        Instant since = refreshedFrom.minus(refreshInterval);
+        try {
+            Long refreshed = readOnlyTransaction.execute(status -> {
+                try (Stream<PlateOwnerView> plates = plateNumberRepository.streamOwnerViewsUpdatedSince(since)) {
+                    long rows = 0;
+                    for (PlateOwnerView plate : (Iterable<PlateOwnerView>) plates::iterator) {
+                        put(plate, true);
+                        rows++;
+                    }
+                    return rows;
+                }
+            });
+            refreshedFrom = started;
+            logger.debug("Plate index refreshed: {} plates written since {}", refreshed, since);
+        } catch (RuntimeException ex) {
+            logger.warn("Plate index refresh failed, the next one reads from {} again", since, ex);
+        }
+    }
+
+    public Optional<PlateOwnerView> find(String plateNumber) {
+        PlateOwnerView plate = ready ? lookup(plateNumber) : null;
+        if (plate != null) {
+            return Optional.of(plate);
+        }
+        if (misses.getIfPresent(plateNumber) != null) {
+            return Optional.empty();
+        }
+        Optional<PlateOwnerView> stored = plateNumberRepository.findOwnerViewByPlateNumber(plateNumber);
+        stored.ifPresentOrElse(found -> put(found, false), () -> misses.put(plateNumber, Boolean.TRUE));
+        return stored;
+    }
+
+    /**
+     * @return The registered plates among {@code plateNumbers}, keyed and ordered by plate number as requested.
+     *         The ones missing from the index, and not recently found missing, are looked up in one query.
+     */
+    public Map<String, PlateOwnerView> findAll(Collection<String> plateNumbers) {
+        Map<String, PlateOwnerView> plates = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String plateNumber : plateNumbers) {
+            PlateOwnerView plate = ready ? lookup(plateNumber) : null;
+            if (plate != null) {
+                plates.put(plateNumber, plate);
+            } else if (misses.getIfPresent(plateNumber) == null) {
+                missing.add(plateNumber);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (PlateOwnerView plate : plateNumberRepository.findOwnerViewsByPlateNumberIn(missing)) {
+                plates.put(plate.plateNumber(), plate);
+                put(plate, false);
+            }
+            for (String plateNumber : missing) {
+                if (!plates.containsKey(plateNumber)) {
+                    misses.put(plateNumber, Boolean.TRUE);
+                }
+            }
+        }
+
+        Map<String, PlateOwnerView> found = new LinkedHashMap<>();
+        for (String plateNumber : plateNumbers) {
+            PlateOwnerView plate = plates.get(plateNumber);
+            if (plate != null) {
+                found.put(plateNumber, plate);
+            }
+        }
+        return found;
+    }
+
+    /** Adds or replaces a plate. */
+    public void put(PlateOwnerView plate) {
+        put(plate, true);
+    }
+
+    public void remove(String plateNumber) {
+        long code = Table.encode(plateNumber);
+        long stamp = lock.writeLock();
+        try {
+            if (code != 0) {
+                table.remove(code);
+            }
+            overflow.remove(plateNumber);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private PlateOwnerView lookup(String plateNumber) {
+        long code = Table.encode(plateNumber);
+        if (code == 0) {
+            return overflow.get(plateNumber);
+        }
+        long stamp = lock.tryOptimisticRead();
+        PlateOwnerView plate = table.get(code, plateNumber);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                plate = table.get(code, plateNumber);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return plate != null ? plate : overflow.get(plateNumber);
+    }
+
+    private void put(PlateOwnerView plate, boolean replace) {
+        misses.invalidate(plate.plateNumber());
+        long code = Table.encode(plate.plateNumber());
+        boolean packed = code != 0 && Table.fits(plate.ownerId(), plate.issuedDate());
+        long stamp = lock.writeLock();
+        try {
+            if (!packed) {
+                if (replace) {
+                    if (code != 0) {
+                        table.remove(code);
+                    }
+                    overflow.put(plate.plateNumber(), plate);
+                } else if (code == 0 || !table.contains(code)) {
+                    overflow.putIfAbsent(plate.plateNumber(), plate);
+                }
+                return;
+            }
+            if (!replace && overflow.containsKey(plate.plateNumber())) {
+                return;
+            }
+            if (table.isFull(loadFactor)) {
+                table = table.resized(Table.slotsFor(table.size() + table.size() / 2, loadFactor));
+            }
+            table.put(code, plate.ownerId(), plate.issuedDate(), plate.inUse(), replace);
+            if (replace) {
+                overflow.remove(plate.plateNumber());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Open-addressing hash table with linear probing over three parallel arrays: the plate number packed into a
+     * {@code long} key (base 37, so up to 10 characters of {@code [A-Z0-9]}; bit 62 holds the in-use flag),
+     * the owner id as an unsigned {@code int}, and the issue date as a {@code char} count of days since 1900-01-01.
+     * That is 14 bytes per slot. Not thread-safe; {@link PlateIndex} guards it.
+     */
+    static final class Table {
+        private static final long IN_USE = 1L << 62;
+        private static final long CODE_MASK = IN_USE - 1;
+        private static final long FIRST_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+        private static final int MAX_SLOTS = Integer.MAX_VALUE - 8;
+
+        private final long[] keys;
+        private final int[] owners;
+        private final char[] days;
+        private final int capacity;
+        private int size;
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            this.keys = new long[capacity];
+            this.owners = new int[capacity];
+            this.days = new char[capacity];
+        }
+
+        static int slotsFor(long entries, double loadFactor) {
+            return (int) Math.min(MAX_SLOTS, (long) Math.ceil(entries / loadFactor) + 1);
+        }
+
+        /** @return The packed plate number, or 0 when it is empty, longer than 10 or not {@code [A-Z0-9]}. */
+        static long encode(String plateNumber) {
+            int length = plateNumber.length();
+            if (length == 0 || length > 10) {
+                return 0;
+            }
+            long code = 0;
+            for (int i = 0; i < length; i++) {
+                char c = plateNumber.charAt(i);
+                int digit;
+                if (c >= '0' && c <= '9') {
+                    digit = c - '0' + 1;
+                } else if (c >= 'A' && c <= 'Z') {
+                    digit = c - 'A' + 11;
+                } else {
+                    return 0;
+                }
+                code = code * 37 + digit;
+            }
+            return code;
+        }
+
+        static boolean fits(Long ownerId, LocalDate issuedDate) {
+            if (ownerId == null || ownerId < 0 || ownerId > 0xFFFFFFFFL || issuedDate == null) {
+                return false;
+            }
+            long day = issuedDate.toEpochDay() - FIRST_DAY;
+            return day >= 0 && day <= Character.MAX_VALUE;
+        }
+
+        PlateOwnerView get(long code, String plateNumber) {
+            int slot = slot(code);
+            if (slot < 0) {
+                return null;
+            }
+            long key = keys[slot];
+            return new PlateOwnerView(plateNumber, Integer.toUnsignedLong(owners[slot]),
+                    LocalDate.ofEpochDay(FIRST_DAY + days[slot]), (key & IN_USE) != 0);
+        }
+
+        boolean contains(long code) {
+            return slot(code) >= 0;
+        }
+
+        /**
+         * Stores the plate, replacing an existing entry only when {@code replace} is set.
+         * The caller must check {@link #fits} and {@link #isFull} first.
+         */
+        void put(long code, long ownerId, LocalDate issuedDate, boolean inUse, boolean replace) {
+            int slot = home(code);
+            while (keys[slot] != 0) {
+                if ((keys[slot] & CODE_MASK) == code) {
+                    if (replace) {
+                        write(slot, code, ownerId, issuedDate, inUse);
+                    }
+                    return;
+                }
+                slot = next(slot);
+            }
+            write(slot, code, ownerId, issuedDate, inUse);
+            size++;
+        }
+
+        /** Removes the plate and shifts back the entries that probed past it, so no tombstones are needed. */
+        void remove(long code) {
+            int hole = slot(code);
+            if (hole < 0) {
+                return;
+            }
+            keys[hole] = 0;
+            size--;
+            for (int slot = next(hole); keys[slot] != 0; slot = next(slot)) {
+                int home = home(keys[slot] & CODE_MASK);
+                // Entries whose home lies cyclically in (hole, slot] are reachable where they are
+                boolean reachable = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+                if (!reachable) {
+                    keys[hole] = keys[slot];
+                    owners[hole] = owners[slot];
+                    days[hole] = days[slot];
+                    keys[slot] = 0;
+                    hole = slot;
+                }
+            }
+        }
+
+        boolean isFull(double loadFactor) {
+            return size + 1 > capacity * loadFactor;
+        }
+
+        Table resized(int newCapacity) {
+            Table resized = new Table(Math.max(newCapacity, slotsFor(size, 1.0)));
+            for (int slot = 0; slot < capacity; slot++) {
+                long key = keys[slot];
+                if (key != 0) {
+                    int target = resized.home(key & CODE_MASK);
+                    while (resized.keys[target] != 0) {
+                        target = resized.next(target);
+                    }
+                    resized.keys[target] = key;
+                    resized.owners[target] = owners[slot];
+                    resized.days[target] = days[slot];
+                }
+            }
+            resized.size = size;
+            return resized;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        long memoryBytes() {
+            return (long) capacity * (Long.BYTES + Integer.BYTES + Character.BYTES);
+        }
+
+        // Bounded by the capacity so a lookup racing with a write cannot loop; the caller revalidates
+        private int slot(long code) {
+            int slot = home(code);
+            for (int probes = 0; probes < capacity; probes++) {
+                long key = keys[slot];
+                if (key == 0) {
+                    return -1;
+                }
+                if ((key & CODE_MASK) == code) {
+                    return slot;
+                }
+                slot = next(slot);
+            }
+            return -1;
+        }
+
+        private void write(int slot, long code, long ownerId, LocalDate issuedDate, boolean inUse) {
+            keys[slot] = inUse ? code | IN_USE : code;
+            owners[slot] = (int) ownerId;
+            days[slot] = (char) (issuedDate.toEpochDay() - FIRST_DAY);
+        }
+
+        // MurmurHash3 finalizer, then the high 32 bits are mapped onto [0, capacity) with a multiply-shift
+        private int home(long code) {
+            long hash = code;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return (int) (((hash >>> 32) * capacity) >>> 32);
+        }
+
+        private int next(int slot) {
+            return slot + 1 == capacity ? 0 : slot + 1;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package rw.rra.vms.demo.Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts registrations of owners, plates and users as {@code registrations}, tagged with the entity, the outcome
+ * ({@code created} or {@code duplicate}) and, for duplicates, the unique key that was already taken.
+ * The duplicate share of the total is the duplicate-rejection rate.
+ */
+@Component
+public class RegistrationMetrics {
+
+    public static final String OWNER = "owner";
+    public static final String PLATE = "plate";
+    public static final String USER = "user";
+
+    /** Rejected by the database constraint after passing the pre-checks, i.e. a concurrent duplicate. */
+    public static final String UNIQUE_CONSTRAINT = "unique_constraint";
+
+    private final MeterRegistry meterRegistry;
+
+    public RegistrationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void created(String entity) {
+        created(entity, 1);
+    }
+
+    public void created(String entity, int count) {
+        counter(entity, "created", "none").increment(count);
+    }
+
+    /**
+     * @param reason The key that was already taken, e.g. national_id, email or plate_number,
+     *               or {@link #UNIQUE_CONSTRAINT} when only the database caught it.
+     */
+    public void rejected(String entity, String reason) {
+        counter(entity, "duplicate", reason).increment();
+    }
+
+    private Counter counter(String entity, String outcome, String reason) {
+        return Counter.builder("registrations")
+                .description("Owner, plate and user registrations by outcome")
+                .tag("entity", entity)
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package rw.rra.vms.demo.Services;
+
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+/**
+ * Conversions between {@link VehicleOwner} entities and {@link VehicleOwnerDto}s,
+ * shared by the owner controller and the bulk registration service.
+ */
+public final class VehicleOwnerMapper {
+
+    private VehicleOwnerMapper() {
+    }
+
+    public static VehicleOwnerDto toDto(VehicleOwner owner) {
+        VehicleOwnerDto dto = new VehicleOwnerDto();
+        dto.setName(owner.getName());
+        dto.setNationalId(owner.getNationalId());
+        dto.setPhone(owner.getPhone());
+        dto.setAddress(owner.getAddress());
+        dto.setEmail(owner.getEmail());
+        return dto;
+    }
+
+    public static VehicleOwner toEntity(VehicleOwnerDto dto) {
+        VehicleOwner owner = new VehicleOwner();
+        owner.setName(dto.getName());
+        owner.setNationalId(dto.getNationalId());
+        owner.setPhone(dto.getPhone());
+        owner.setAddress(dto.getAddress());
+        owner.setEmail(dto.getEmail());
+        return owner;
+    }
+}
@@ -0,0 +1,37 @@
+package rw.rra.vms.demo.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a bulk owner registration request, with the results of the rows that were not created.
+ * Created rows are only counted, so a request of any size keeps just its problem rows in memory.
+ */
+@Data
+public class BulkRegistrationReport {
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+
+    /**
+     * Duplicate, invalid and failed rows, in request order.
+     */
+    private List<BulkRegistrationResult> results = new ArrayList<>();
+
+    public void add(BulkRegistrationResult result) {
+        if (result.getStatus() != BulkRegistrationResult.Status.CREATED) {
+            results.add(result);
+        }
+        total++;
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+            case FAILED -> failed++;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package rw.rra.vms.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single row in a bulk owner registration request.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegistrationResult {
+    public enum Status { CREATED, DUPLICATE, INVALID, FAILED }
+
+    /**
+     * Zero-based position of the row in the request.
+     */
+    private int index;
+
+    private Status status;
+
+    private String message;
+
+    /**
+     * Field validation errors, only set for INVALID rows.
+     */
+    private Map<String, String> errors;
+}
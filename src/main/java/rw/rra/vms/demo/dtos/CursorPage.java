@@ -0,0 +1,43 @@
+package rw.rra.vms.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. {@code nextCursor} is an opaque token that resumes
+ * the listing after the last row of this slice; it is absent on the last slice.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Total number of rows, only computed when the client asks for it.
+     */
+    private Long totalElements;
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(long)}.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static long decodeCursor(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith("id:")) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return Long.parseLong(decoded.substring(3));
+    }
+}
@@ -0,0 +1,12 @@
+package rw.rra.vms.demo.dtos;
+
+import java.time.Instant;
+
+/**
+ * Progress and outcome of an owner import job. {@code percent} is the share of the uploaded file read so far;
+ * the counts of created and rejected rows are final once the status is COMPLETED.
+ */
+public record ImportJobStatus(Long id, String fileName, String status, long fileSize, long bytesRead, double percent,
+                              long rowsRead, long rowsRejected, long ownersCreated, long platesCreated, String error,
+                              String createdBy, Instant createdAt, Instant updatedAt) {
+}
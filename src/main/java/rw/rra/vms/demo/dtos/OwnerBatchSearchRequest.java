@@ -0,0 +1,15 @@
+package rw.rra.vms.demo.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owners to look up in one call, by national ID and/or phone.
+ */
+@Data
+public class OwnerBatchSearchRequest {
+    private List<String> nationalIds = new ArrayList<>();
+    private List<String> phones = new ArrayList<>();
+}
@@ -0,0 +1,9 @@
+package rw.rra.vms.demo.dtos;
+
+/**
+ * One ranked result of the fuzzy owner search: the owner, the field it matched on (name, email, phone or plate)
+ * with the matching value, and its score (higher is better).
+ */
+public record OwnerSearchHit(Long id, String name, String nationalId, String phone, String address, String email,
+                             String matchedOn, String matchedValue, double score) {
+}
@@ -0,0 +1,15 @@
+package rw.rra.vms.demo.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch plate lookup: the registered plates in request order, and the plates that are not registered.
+ */
+@Data
+public class PlateLookupResponse {
+    private List<PlateOwnerView> found = new ArrayList<>();
+    private List<String> notFound = new ArrayList<>();
+}
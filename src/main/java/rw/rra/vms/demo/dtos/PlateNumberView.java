@@ -0,0 +1,10 @@
+package rw.rra.vms.demo.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a plate, selected directly by owner id without loading the owner.
+ * Serializes to the same JSON shape as {@link PlateNumberDto}.
+ */
+public record PlateNumberView(String plateNumber, LocalDate issuedDate, boolean inUse) {
+}
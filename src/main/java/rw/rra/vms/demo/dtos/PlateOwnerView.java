@@ -0,0 +1,9 @@
+package rw.rra.vms.demo.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * A plate with the id of its owner, as served by the plate reverse lookup.
+ */
+public record PlateOwnerView(String plateNumber, Long ownerId, LocalDate issuedDate, boolean inUse) {
+}
@@ -0,0 +1,46 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Every statement is idempotent so this
+-- also runs against databases that were created that way.
+
+CREATE SEQUENCE IF NOT EXISTS vehicle_owner_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY,
+    name        varchar(255) NOT NULL,
+    email       varchar(255) NOT NULL,
+    phone       varchar(255) NOT NULL,
+    national_id varchar(255) NOT NULL,
+    password    varchar(255) NOT NULL,
+    role        varchar(255) NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_national_id UNIQUE (national_id)
+);
+
+CREATE TABLE IF NOT EXISTS vehicle_owner (
+    id          bigint       NOT NULL,
+    name        varchar(255) NOT NULL,
+    national_id varchar(255) NOT NULL,
+    phone       varchar(255) NOT NULL,
+    address     varchar(255) NOT NULL,
+    email       varchar(255) NOT NULL,
+    CONSTRAINT vehicle_owner_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_vehicle_owner_national_id UNIQUE (national_id),
+    CONSTRAINT uk_vehicle_owner_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS plate_number (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY,
+    owner_id     bigint       NOT NULL,
+    plate_number varchar(255) NOT NULL,
+    issued_date  date         NOT NULL,
+    in_use       boolean      NOT NULL,
+    CONSTRAINT plate_number_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_plate_number_plate_number UNIQUE (plate_number),
+    CONSTRAINT fk_plate_number_owner FOREIGN KEY (owner_id) REFERENCES vehicle_owner (id)
+);
+
+-- Owners inserted while the id was an identity column must not collide with sequence-allocated ids.
+-- Hibernate's pooled optimizer hands out (nextval - 49) .. nextval, so keep the sequence at or above max(id).
+SELECT setval('vehicle_owner_seq', m.max_id + 50)
+FROM (SELECT max(id) AS max_id FROM vehicle_owner) m, vehicle_owner_seq s
+WHERE m.max_id IS NOT NULL AND m.max_id > s.last_value;
@@ -0,0 +1,36 @@
+-- Indexes behind the owner and plate lookups, which were sequential scans under ddl-auto=update.
+-- Plain CREATE INDEX locks writes while it builds; on a large live table create these CONCURRENTLY by hand first
+-- (IF NOT EXISTS then makes this migration a no-op).
+
+-- PlateNumberRepository.findByOwner / findViewsByOwnerId and the export join
+CREATE INDEX IF NOT EXISTS idx_plate_number_owner_id ON plate_number (owner_id);
+
+-- VehicleOwnerRepository.findByPhone (owner search)
+CREATE INDEX IF NOT EXISTS idx_vehicle_owner_phone ON vehicle_owner (phone);
+
+-- Plates in use, per owner. Partial, so only in-use rows are indexed
+CREATE INDEX IF NOT EXISTS idx_plate_number_in_use ON plate_number (owner_id) WHERE in_use;
+
+-- Databases created by ddl-auto=update only kept emails unique as typed. Rather than fail on the indexes below,
+-- stop with the rows whose emails differ only by case: correct or remove all but one of each group, then migrate
+-- again.
+DO $$
+DECLARE
+    conflicts text;
+BEGIN
+    SELECT string_agg(format('%s ids %s (%s)', d.table_name, d.ids, d.emails), '; ') INTO conflicts
+    FROM (SELECT 'vehicle_owner' AS table_name, string_agg(id::text, ', ' ORDER BY id) AS ids,
+                 string_agg(email, ', ' ORDER BY id) AS emails
+          FROM vehicle_owner GROUP BY lower(email) HAVING count(*) > 1
+          UNION ALL
+          SELECT 'users', string_agg(id::text, ', ' ORDER BY id), string_agg(email, ', ' ORDER BY id)
+          FROM users GROUP BY lower(email) HAVING count(*) > 1) d;
+    IF conflicts IS NOT NULL THEN
+        RAISE EXCEPTION 'Emails must be unique regardless of case, these rows differ only by case: %', conflicts
+            USING HINT = 'Correct or remove all but one row of each group, then run the migration again';
+    END IF;
+END $$;
+
+-- Emails are unique regardless of case; the email lookups compare lower(email) to use these
+CREATE UNIQUE INDEX IF NOT EXISTS ux_vehicle_owner_email_lower ON vehicle_owner (lower(email));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_lower ON users (lower(email));
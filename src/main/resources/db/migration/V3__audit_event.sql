@@ -0,0 +1,32 @@
+-- Registration audit trail, written in batches by AuditLog. Rows are only ever inserted.
+
+CREATE TABLE audit_event (
+    id          bigint GENERATED ALWAYS AS IDENTITY,
+    occurred_at timestamp with time zone NOT NULL,
+    actor       varchar(255) NOT NULL,
+    entity      varchar(16)  NOT NULL,
+    entity_key  varchar(255),
+    outcome     varchar(16)  NOT NULL,
+    reason      varchar(255),
+    CONSTRAINT audit_event_pkey PRIMARY KEY (id)
+);
+
+-- History of one owner, plate or user
+CREATE INDEX idx_audit_event_entity_key ON audit_event (entity, entity_key);
+
+-- What a given clerk did, newest first
+CREATE INDEX idx_audit_event_actor ON audit_event (actor, occurred_at);
+
+-- Time ranges. Rows arrive roughly in occurred_at order, so a BRIN index stays tiny
+CREATE INDEX idx_audit_event_occurred_at ON audit_event USING brin (occurred_at);
+
+-- Append-only: reject changes to recorded events
+CREATE FUNCTION audit_event_immutable() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_event is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER audit_event_no_update_or_delete
+    BEFORE UPDATE OR DELETE ON audit_event
+    FOR EACH ROW EXECUTE FUNCTION audit_event_immutable();
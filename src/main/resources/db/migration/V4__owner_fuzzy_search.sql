@@ -0,0 +1,13 @@
+-- Trigram indexes behind VehicleOwnerRepository.fuzzySearch (GET /api/owners/search/fuzzy).
+-- pg_trgm is a trusted extension (PostgreSQL 13+), so the database owner can create it without superuser rights.
+-- As with V2, build these CONCURRENTLY by hand first on a large live table.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- GiST rather than GIN: GiST returns rows nearest first (ORDER BY col <<-> q LIMIT k), so a term shared by millions
+-- of rows (a common surname, "gmail") stops after k of them, where a GIN bitmap scan would fetch and rank them all.
+-- Trigrams are case-insensitive, so the plain columns serve case-insensitive prefix and typo-tolerant matches.
+CREATE INDEX IF NOT EXISTS idx_vehicle_owner_name_trgm ON vehicle_owner USING gist (name gist_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_vehicle_owner_email_trgm ON vehicle_owner USING gist (email gist_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_vehicle_owner_phone_trgm ON vehicle_owner USING gist (phone gist_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_plate_number_plate_trgm ON plate_number USING gist (plate_number gist_trgm_ops);
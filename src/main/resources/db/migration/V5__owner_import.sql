@@ -0,0 +1,36 @@
+-- CSV owner and plate imports (OwnerImportService). A job row tracks progress and is the checkpoint a restarted
+-- job resumes from; the file's rows are copied into owner_import_row before being resolved with set-based SQL.
+
+CREATE TABLE owner_import_job (
+    id             bigint GENERATED ALWAYS AS IDENTITY,
+    file_name      varchar(255) NOT NULL,
+    file_size      bigint       NOT NULL,
+    status         varchar(16)  NOT NULL,
+    bytes_read     bigint       NOT NULL DEFAULT 0,
+    rows_read      bigint       NOT NULL DEFAULT 0,
+    rows_rejected  bigint       NOT NULL DEFAULT 0,
+    owners_created bigint       NOT NULL DEFAULT 0,
+    plates_created bigint       NOT NULL DEFAULT 0,
+    error          varchar(1000),
+    created_by     varchar(255) NOT NULL,
+    created_at     timestamp with time zone NOT NULL,
+    updated_at     timestamp with time zone NOT NULL,
+    CONSTRAINT owner_import_job_pkey PRIMARY KEY (id)
+);
+
+-- Staging rows, kept as the text that was read so rejected rows can be written back out unchanged.
+-- Unlogged: COPY skips the WAL, and a crash empties the table, which the job detects and reloads from the file.
+CREATE UNLOGGED TABLE owner_import_row (
+    job_id        bigint NOT NULL,
+    line_no       bigint NOT NULL,
+    name          text,
+    national_id   text,
+    phone         text,
+    address       text,
+    email         text,
+    plate_number  text,
+    issued_date   text,
+    in_use        text,
+    reject_reason text,
+    CONSTRAINT owner_import_row_pkey PRIMARY KEY (job_id, line_no)
+);
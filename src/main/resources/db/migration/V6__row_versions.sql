@@ -0,0 +1,10 @@
+-- Row versions behind the ETag and Last-Modified headers of GET /api/owners and GET /api/owners/{ownerId}/plates.
+-- version is the JPA @Version counter and updated_at is set by Hibernate on every write; rows inserted with SQL
+-- (the CSV import) take the defaults. Constant and now() defaults are stored in the catalog, so adding the columns
+-- does not rewrite either table; existing rows report the migration time as their last change.
+
+ALTER TABLE vehicle_owner ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE vehicle_owner ADD COLUMN IF NOT EXISTS updated_at timestamp with time zone NOT NULL DEFAULT now();
+
+ALTER TABLE plate_number ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE plate_number ADD COLUMN IF NOT EXISTS updated_at timestamp with time zone NOT NULL DEFAULT now();
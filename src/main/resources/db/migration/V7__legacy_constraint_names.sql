@@ -0,0 +1,37 @@
+-- Databases created by the former ddl-auto=update kept the constraint names Hibernate generated (UK..., FK...),
+-- since V1 leaves their tables alone. Registrations tell a duplicate national ID, email or plate number from the
+-- name of the violated constraint, so give those constraints the names V1 uses. Renaming a unique constraint
+-- renames its index as well; neither is rebuilt.
+
+DO $$
+DECLARE
+    wanted   record;
+    existing text;
+BEGIN
+    FOR wanted IN SELECT * FROM (VALUES
+            ('users', 'email', 'u', 'uk_users_email'),
+            ('users', 'national_id', 'u', 'uk_users_national_id'),
+            ('vehicle_owner', 'email', 'u', 'uk_vehicle_owner_email'),
+            ('vehicle_owner', 'national_id', 'u', 'uk_vehicle_owner_national_id'),
+            ('plate_number', 'plate_number', 'u', 'uk_plate_number_plate_number'),
+            ('plate_number', 'owner_id', 'f', 'fk_plate_number_owner'))
+            AS w (table_name, column_name, constraint_type, constraint_name)
+    LOOP
+        SELECT c.conname INTO existing
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = to_regclass(wanted.table_name)
+          AND c.contype = wanted.constraint_type::"char"
+          AND cardinality(c.conkey) = 1
+          AND a.attname = wanted.column_name
+          AND NOT EXISTS (SELECT 1 FROM pg_constraint o
+                          WHERE o.conrelid = c.conrelid AND o.conname = wanted.constraint_name)
+        ORDER BY c.conname
+        LIMIT 1;
+        IF existing IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I',
+                    wanted.table_name, existing, wanted.constraint_name);
+        END IF;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,2 @@
+-- PlateNumberRepository.streamOwnerViewsUpdatedSince, the periodic plate index refresh of every node
+CREATE INDEX IF NOT EXISTS idx_plate_number_updated_at ON plate_number (updated_at);
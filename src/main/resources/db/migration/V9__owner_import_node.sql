@@ -0,0 +1,4 @@
+-- The node an import runs on. Its upload is on that node's disk and its staging rows are in use there, so only
+-- that node resumes or cleans up the job after a restart. Jobs from before this column are claimed by the first
+-- node to restart.
+ALTER TABLE owner_import_job ADD COLUMN IF NOT EXISTS node varchar(255);
@@ -0,0 +1,36 @@
+package rw.rra.vms.demo.Config;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The actuator served on the application's port, as with {@code management.server.port} set to the server's.
+ */
+@SpringBootTest(properties = "management.server.port=${server.port}")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class ActuatorSecurityTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void prometheusScrapesOnTheApplicationsPortRequireAnAdmin() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+		mockMvc.perform(get("/actuator/prometheus").with(user("admin").authorities(new SimpleGrantedAuthority("ADMIN"))))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,81 @@
+package rw.rra.vms.demo.Config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import rw.rra.vms.demo.dtos.CursorPage;
+import rw.rra.vms.demo.dtos.PlateNumberView;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarJsonHttpMessageConverterTests {
+
+	// Spring Boot's defaults: dates as ISO strings
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+	private final ColumnarJsonHttpMessageConverter converter = new ColumnarJsonHttpMessageConverter(objectMapper);
+
+	@Test
+	void writesPlatesColumnByColumnWithTheirJsonValues() throws IOException {
+		JsonNode written = write(List.of(
+				new PlateNumberView("RAA001A", LocalDate.of(2024, 1, 1), true),
+				new PlateNumberView("RAB002B", LocalDate.of(2024, 2, 1), false)));
+
+		assertThat(written.get("rows").asInt()).isEqualTo(2);
+		JsonNode columns = written.get("columns");
+		assertThat(columns.get("plateNumber")).containsExactly(text("RAA001A"), text("RAB002B"));
+		assertThat(columns.get("issuedDate")).containsExactly(text("2024-01-01"), text("2024-02-01"));
+		assertThat(columns.get("inUse").get(1).asBoolean()).isFalse();
+	}
+
+	@Test
+	void writesPageAndCursorMetadataNextToTheColumns() throws IOException {
+		VehicleOwnerDto owner = new VehicleOwnerDto();
+		owner.setName("Jane Doe");
+		owner.setNationalId("1199880000000001");
+
+		JsonNode page = write(new PageImpl<>(List.of(owner), PageRequest.of(2, 1), 10));
+		assertThat(page.get("columns").get("name")).containsExactly(text("Jane Doe"));
+		assertThat(page.get("columns").get("email")).containsExactly(objectMapper.nullNode());
+		assertThat(page.get("page").get("number").asInt()).isEqualTo(2);
+		assertThat(page.get("page").get("totalPages").asInt()).isEqualTo(10);
+
+		CursorPage<VehicleOwnerDto> slice = new CursorPage<>();
+		slice.setContent(List.of());
+		slice.setHasNext(false);
+		JsonNode empty = write(slice);
+		assertThat(empty.get("rows").asInt()).isZero();
+		assertThat(empty.get("columns").isEmpty()).isTrue();
+		assertThat(empty.has("nextCursor")).isFalse();
+	}
+
+	@Test
+	void onlyAnswersClientsAskingForIt() {
+		assertThat(converter.canWrite(List.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON)).isTrue();
+		assertThat(converter.canWrite(List.class, null)).isFalse();
+		assertThat(converter.canWrite(List.class, MediaType.APPLICATION_JSON)).isFalse();
+		assertThat(converter.canWrite(VehicleOwnerDto.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON)).isFalse();
+		assertThat(converter.canRead(List.class, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON)).isFalse();
+	}
+
+	private JsonNode write(Object body) throws IOException {
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+		converter.write(body, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON, output);
+		return objectMapper.readTree(output.getBodyAsBytes());
+	}
+
+	private JsonNode text(String value) {
+		return objectMapper.getNodeFactory().textNode(value);
+	}
+}
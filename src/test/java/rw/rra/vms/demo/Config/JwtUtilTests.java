@@ -0,0 +1,34 @@
+package rw.rra.vms.demo.Config;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTests {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+
+	@Test
+	void aSignedTokenWithoutExpiryIsInvalid() {
+		String token = Jwts.builder()
+				.setSubject("jane@example.com")
+				.setIssuedAt(new Date())
+				.signWith(jwtUtil.getSigningKey())
+				.compact();
+
+		assertThatThrownBy(() -> jwtUtil.verify(token)).isInstanceOf(JwtException.class);
+	}
+
+	@Test
+	void aTokenWithExpiryIsVerified() {
+		String token = jwtUtil.createToken(new HashMap<>(), "jane@example.com");
+
+		assertThat(jwtUtil.verify(token).subject()).isEqualTo("jane@example.com");
+	}
+}
@@ -0,0 +1,246 @@
+package rw.rra.vms.demo.Config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.context.request.ServletWebRequest;
+import rw.rra.vms.demo.Controllers.AuthController;
+import rw.rra.vms.demo.Controllers.OwnerController;
+import rw.rra.vms.demo.Services.OwnerLookupCache;
+import rw.rra.vms.demo.dtos.CursorPage;
+import rw.rra.vms.demo.dtos.LoginRequest;
+import rw.rra.vms.demo.dtos.SignupRequest;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the application against two embedded Postgres servers. The replica is a second server migrated to the same
+ * schema, standing in for a streaming replica, so the server that answers a query tells where it was routed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingTests {
+
+	private static EmbeddedPostgres primary;
+	private static EmbeddedPostgres replica;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private OwnerController ownerController;
+
+	@Autowired
+	private AuthController authController;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private OwnerLookupCache ownerLookupCache;
+
+	@Autowired
+	private ReadYourWritesFilter readYourWritesFilter;
+
+	@BeforeAll
+	static void startDatabases() throws IOException {
+		primary = EmbeddedPostgres.start();
+		replica = EmbeddedPostgres.start();
+		Flyway.configure().dataSource(replica.getPostgresDatabase()).load().migrate();
+	}
+
+	@AfterAll
+	static void stopDatabases() throws IOException {
+		replica.close();
+		primary.close();
+	}
+
+	@DynamicPropertySource
+	static void databases(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> primary.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("datasource.replica.urls", () -> replica.getJdbcUrl("postgres", "postgres"));
+		registry.add("datasource.replica.health-check-interval", () -> "200ms");
+	}
+
+	@Test
+	@Order(1)
+	void readOnlyTransactionsGoToTheReplica() {
+		assertThat(serverPort(true)).isEqualTo(replica.getPort());
+		assertThat(serverPort(false)).isEqualTo(primary.getPort());
+		assertThat(jdbcTemplate.queryForObject("select inet_server_port()", Integer.class)).isEqualTo(primary.getPort());
+	}
+
+	@Test
+	@Order(2)
+	void ownersAreRegisteredOnThePrimaryAndListedFromTheReplica() {
+		new JdbcTemplate(replica.getPostgresDatabase()).update("insert into vehicle_owner (id, name, national_id, phone, address, email) " +
+				"values (1000000, 'Replica Owner', '1199000000000801', '0788000000', 'Kigali', 'replica@example.com')");
+
+		VehicleOwnerDto owner = new VehicleOwnerDto();
+		owner.setName("Primary Owner");
+		owner.setNationalId("1199000000000802");
+		owner.setPhone("0788000000");
+		owner.setAddress("Kigali");
+		owner.setEmail("primary@example.com");
+		ownerController.registerOwner(owner, new BeanPropertyBindingResult(owner, "ownerDto"));
+
+		assertThat(jdbcTemplate.queryForObject("select count(*) from vehicle_owner where national_id = '1199000000000802'",
+				Integer.class)).isEqualTo(1);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+		CursorPage<?> listed = (CursorPage<?>) ownerController
+				.getOwners(null, 10, null, false, new ServletWebRequest(request, new MockHttpServletResponse())).getBody();
+		assertThat(listed.getContent()).extracting("nationalId").containsExactly("1199000000000801");
+	}
+
+	@Test
+	@Order(3)
+	void aClientReadsFromThePrimaryRightAfterItsOwnWrite() throws Exception {
+		readYourWritesFilter.doFilter(request("POST", "10.0.0.1"), new MockHttpServletResponse(), (request, response) -> {
+		});
+
+		AtomicInteger writer = new AtomicInteger();
+		readYourWritesFilter.doFilter(request("GET", "10.0.0.1"), new MockHttpServletResponse(),
+				(request, response) -> writer.set(serverPort(true)));
+		AtomicInteger other = new AtomicInteger();
+		readYourWritesFilter.doFilter(request("GET", "10.0.0.2"), new MockHttpServletResponse(),
+				(request, response) -> other.set(serverPort(true)));
+
+		assertThat(writer.get()).isEqualTo(primary.getPort());
+		assertThat(other.get()).isEqualTo(replica.getPort());
+		assertThat(serverPort(true)).isEqualTo(replica.getPort());
+	}
+
+	@Test
+	@Order(4)
+	void aSignupCanLogInBeforeTheReplicaHasTheUser() throws Exception {
+		SignupRequest signup = new SignupRequest();
+		signup.setName("Jane Doe");
+		signup.setEmail("signup@example.com");
+		signup.setPhone("0788000000");
+		signup.setNationalId("1199000000000803");
+		signup.setPassword("password123");
+		signup.setRole("STANDARD");
+		readYourWritesFilter.doFilter(request("POST", "10.0.0.3"), new MockHttpServletResponse(), (request, response) ->
+				authController.signup(signup, new BeanPropertyBindingResult(signup, "signupRequest")));
+
+		LoginRequest login = new LoginRequest();
+		login.setEmail("signup@example.com");
+		login.setPassword("password123");
+		AtomicReference<ResponseEntity<?>> loggedIn = new AtomicReference<>();
+		readYourWritesFilter.doFilter(request("POST", "10.0.0.3"), new MockHttpServletResponse(), (request, response) -> {
+			try {
+				loggedIn.set(authController.login(login, new BeanPropertyBindingResult(login, "loginRequest")).get());
+			} catch (InterruptedException | ExecutionException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+
+		// The replica never gets the user, like one that lags behind the signup
+		assertThat(new JdbcTemplate(replica.getPostgresDatabase()).queryForObject(
+				"select count(*) from users where email = 'signup@example.com'", Integer.class)).isZero();
+		assertThat(loggedIn.get().getStatusCode().is2xxSuccessful()).isTrue();
+	}
+
+	@Test
+	@Order(5)
+	void aStreamedResponseReadsFromThePrimaryRightAfterTheClientsWrite() throws Exception {
+		mockMvc.perform(post("/api/owners").with(user("writer").authorities(new SimpleGrantedAuthority("ADMIN")))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\": \"Jane Doe\", \"nationalId\": \"1199000000000804\", \"phone\": \"0788000000\", " +
+								"\"address\": \"Kigali\", \"email\": \"streamed@example.com\"}"))
+				.andExpect(status().is2xxSuccessful());
+
+		// The export runs on the application task executor, after the request thread has left the filter
+		assertThat(export("writer")).contains("1199000000000804");
+		assertThat(export("reader")).contains("1199000000000801").doesNotContain("1199000000000804");
+	}
+
+	@Test
+	@Order(6)
+	void ownerLookupsAreCachedFromThePrimary() {
+		// Registered on the primary only, by a client whose read-your-writes window is over
+		ResponseEntity<?> found = ownerController.searchOwner("1199000000000802", null);
+
+		assertThat(found.getStatusCode().is2xxSuccessful()).isTrue();
+		assertThat(ownerLookupCache.findByNationalId("1199000000000802")).map(VehicleOwnerDto::getName).contains("Primary Owner");
+	}
+
+	@Test
+	@Order(7)
+	void readsFallBackToTheReadOnlyPrimaryWhileTheReplicaIsDown() throws IOException {
+		replica.close();
+
+		await().atMost(Duration.ofSeconds(10)).ignoreExceptions()
+				.untilAsserted(() -> assertThat(serverPort(true)).isEqualTo(primary.getPort()));
+		assertThatThrownBy(() -> inTransaction(true, () -> jdbcTemplate.update("delete from vehicle_owner")))
+				.hasMessageContaining("read-only transaction");
+	}
+
+	private String export(String userName) throws Exception {
+		MvcResult started = mockMvc.perform(get("/api/owners/export")
+						.with(user(userName).authorities(new SimpleGrantedAuthority("ADMIN"))))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString();
+	}
+
+	private int serverPort(boolean readOnly) {
+		return inTransaction(readOnly, () -> jdbcTemplate.queryForObject("select inet_server_port()", Integer.class));
+	}
+
+	private int inTransaction(boolean readOnly, IntSupplier work) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status -> work.getAsInt());
+	}
+
+	private static MockHttpServletRequest request(String method, String remoteAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/owners");
+		request.setRemoteAddr(remoteAddress);
+		return request;
+	}
+}
@@ -0,0 +1,53 @@
+package rw.rra.vms.demo.Config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTests {
+
+	private final TokenRevocationList revocationList = new TokenRevocationList(new JwtUtil(), 1000);
+
+	@Test
+	void aRevokedTokenIsRejectedAndOthersOfTheUserAreNot() {
+		VerifiedToken token = token("jane@example.com", 7L, Instant.now().minusSeconds(60));
+
+		revocationList.revoke("token-a", token);
+
+		assertThat(revocationList.isRevoked("token-a", token)).isTrue();
+		assertThat(revocationList.isRevoked("token-b", token)).isFalse();
+	}
+
+	@Test
+	void revokingAUserRejectsTheTokensIssuedUpToTheSecondOfTheRevocation() {
+		// Tokens only carry whole seconds: one issued in this second may predate the revocation
+		Instant second;
+		do {
+			second = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+			revocationList.revokeUser(7L, "jane@example.com");
+		} while (!second.equals(Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+
+		assertThat(revocationList.isRevoked("earlier", token("jane@example.com", 7L, second.minusSeconds(1)))).isTrue();
+		assertThat(revocationList.isRevoked("same-second", token("jane@example.com", 7L, second))).isTrue();
+		assertThat(revocationList.isRevoked("no-issue-time", token("jane@example.com", 7L, null))).isTrue();
+		assertThat(revocationList.isRevoked("later", token("jane@example.com", 7L, second.plusSeconds(1)))).isFalse();
+		assertThat(revocationList.isRevoked("other-user", token("john@example.com", 8L, second))).isFalse();
+	}
+
+	@Test
+	void revokingAUserFollowsItsIdAcrossAnEmailChange() {
+		Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(1);
+
+		revocationList.revokeUser(7L, "jane.new@example.com");
+
+		assertThat(revocationList.isRevoked("old-email", token("jane@example.com", 7L, issuedAt))).isTrue();
+	}
+
+	private static VerifiedToken token(String subject, Long userId, Instant issuedAt) {
+		return new VerifiedToken(subject, userId, "ADMIN", issuedAt, Instant.now().plus(Duration.ofHours(1)));
+	}
+}
@@ -0,0 +1,72 @@
+package rw.rra.vms.demo.Config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniqueViolationLogFilterTests {
+
+	private final LoggerContext context = new LoggerContext();
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+	private Logger helper;
+
+	// Each of the tests' calls to isDebugEnabled starts a call of the helper's logExceptions, as the helper does
+	@BeforeEach
+	void setUp() {
+		UniqueViolationLogFilter filter = new UniqueViolationLogFilter();
+		filter.start();
+		context.addTurboFilter(filter);
+		appender.setContext(context);
+		appender.start();
+		context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+		helper = context.getLogger("org.hibernate.engine.jdbc.spi.SqlExceptionHelper");
+	}
+
+	@Test
+	void dropsTheWarningAndErrorOfAUniqueViolation() {
+		helper.isDebugEnabled();
+		helper.warn("SQL Error: 0, SQLState: 23505");
+		helper.error("ERROR: duplicate key value violates unique constraint \"uk_users_email\"");
+		// A batch: the repeated SQLState is logged once, then an ERROR for the batch and one for the statement
+		helper.isDebugEnabled();
+		helper.warn("SQL Error: 0, SQLState: 23505");
+		helper.error("Batch entry 0 insert into vehicle_owner (...) was aborted");
+		helper.error("ERROR: duplicate key value violates unique constraint \"uk_vehicle_owner_national_id\"");
+
+		assertThat(appender.list).isEmpty();
+	}
+
+	@Test
+	void keepsAnErrorLoggedAloneAfterAUniqueViolation() {
+		helper.isDebugEnabled();
+		helper.warn("SQL Error: 0, SQLState: 23505");
+		helper.error("ERROR: duplicate key value violates unique constraint \"uk_users_email\"");
+		helper.isDebugEnabled();
+		helper.error("Connection refused");
+
+		assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly("Connection refused");
+	}
+
+	@Test
+	void keepsOtherSqlErrors() {
+		helper.isDebugEnabled();
+		helper.warn("SQL Error: 0, SQLState: 23505");
+		helper.error("ERROR: duplicate key value violates unique constraint \"uk_users_email\"");
+		helper.isDebugEnabled();
+		helper.warn("SQL Error: 0, SQLState: 23503");
+		helper.error("ERROR: insert or update on table \"plate_number\" violates foreign key constraint");
+		helper.error("Connection refused");
+		context.getLogger("rw.rra.vms.demo").warn("SQL Error: 0, SQLState: 23505");
+
+		assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+				"SQL Error: 0, SQLState: 23503",
+				"ERROR: insert or update on table \"plate_number\" violates foreign key constraint",
+				"Connection refused",
+				"SQL Error: 0, SQLState: 23505");
+	}
+}
@@ -0,0 +1,161 @@
+package rw.rra.vms.demo.Controllers;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.context.request.ServletWebRequest;
+import rw.rra.vms.demo.Entities.PlateNumber;
+import rw.rra.vms.demo.Repositories.PlateNumberRepository;
+import rw.rra.vms.demo.Repositories.RowVersions;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.PlateNumberDto;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class ConditionalGetTests {
+
+	@Autowired
+	private OwnerController ownerController;
+
+	@Autowired
+	private PlateNumberRepository plateNumberRepository;
+
+	@Autowired
+	private VehicleOwnerRepository ownerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long ownerId;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("delete from plate_number");
+		jdbcTemplate.update("delete from vehicle_owner");
+		ownerId = registerOwner("1199000000000901");
+		registerPlate("RDD001D");
+	}
+
+	@Test
+	void unchangedPlatesAnswer304AndANewPlateChangesTheETag() {
+		String eTag = get(request -> ownerController.getPlates(ownerId, request), null).eTag();
+
+		assertThat(get(request -> ownerController.getPlates(ownerId, request), eTag).status()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+		registerPlate("RDD002D");
+		Conditional changed = get(request -> ownerController.getPlates(ownerId, request), eTag);
+		assertThat(changed.status()).isEqualTo(HttpStatus.OK);
+		assertThat(changed.eTag()).isNotEqualTo(eTag);
+	}
+
+	@Test
+	void updatedPlateChangesTheETag() {
+		String eTag = get(request -> ownerController.getPlates(ownerId, request), null).eTag();
+
+		PlateNumber plate = plateNumberRepository.findByPlateNumber("RDD001D").orElseThrow();
+		plate.setInUse(false);
+		plateNumberRepository.save(plate);
+
+		assertThat(get(request -> ownerController.getPlates(ownerId, request), eTag).status()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void keysetSliceETagCoversTheNextRowAndTheTotal() {
+		String slice = get(request -> ownerController.getOwners(null, 1, null, false, request), null).eTag();
+		String counted = get(request -> ownerController.getOwners(null, 1, null, true, request), null).eTag();
+		assertThat(slice).isNotEqualTo(counted);
+
+		// A second owner decides hasNext and the total, but not the content of a one-owner slice
+		registerOwner("1199000000000902");
+
+		assertThat(get(request -> ownerController.getOwners(null, 1, null, false, request), slice).status()).isEqualTo(HttpStatus.OK);
+		assertThat(get(request -> ownerController.getOwners(null, 1, null, true, request), counted).status()).isEqualTo(HttpStatus.OK);
+		String twoOwners = get(request -> ownerController.getOwners(null, 1, null, false, request), null).eTag();
+		assertThat(get(request -> ownerController.getOwners(null, 1, null, false, request), twoOwners).status())
+				.isEqualTo(HttpStatus.NOT_MODIFIED);
+	}
+
+	@Test
+	void offsetPageETagChangesWithTheTotal() {
+		String eTag = get(request -> ownerController.getOwners(0, 10, null, false, request), null).eTag();
+		assertThat(get(request -> ownerController.getOwners(0, 10, null, false, request), eTag).status()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+		registerOwner("1199000000000903");
+
+		assertThat(get(request -> ownerController.getOwners(0, 10, null, false, request), eTag).status()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void offsetPageFingerprintCoversTheServedRows() {
+		registerOwner("1199000000000902");
+		registerOwner("1199000000000903");
+		// An update writes a new row version at the end of the table, so its physical order no longer follows the ids
+		jdbcTemplate.update("update vehicle_owner set name = 'Jane Moved' where national_id = '1199000000000901'");
+
+		for (int page = 0; page < 2; page++) {
+			List<String> expected = jdbcTemplate.queryForList(
+					"select id || ':' || version from vehicle_owner order by id offset ? limit 2", String.class, page * 2);
+			List<String> served = ownerRepository.findAll(OwnerController.ownerPage(page, 2)).getContent().stream()
+					.map(owner -> owner.getId() + ":" + owner.getVersion())
+					.toList();
+			RowVersions versions = ownerRepository.findVersionsOfPage(page * 2L, 2);
+
+			assertThat(served).isEqualTo(expected);
+			assertThat(versions.getRowCount()).isEqualTo(expected.size());
+			assertThat(versions.getHash())
+					.isEqualTo(DigestUtils.md5DigestAsHex(String.join(",", expected).getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+	private record Conditional(HttpStatus status, String eTag) {
+	}
+
+	private static Conditional get(Function<ServletWebRequest, ResponseEntity<?>> call, String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ResponseEntity<?> entity = call.apply(new ServletWebRequest(request, response));
+		assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("W/\"");
+		return new Conditional(HttpStatus.valueOf(entity.getStatusCode().value()), response.getHeader(HttpHeaders.ETAG));
+	}
+
+	private long registerOwner(String nationalId) {
+		VehicleOwnerDto owner = new VehicleOwnerDto();
+		owner.setName("Jane Doe");
+		owner.setNationalId(nationalId);
+		owner.setPhone("0788000000");
+		owner.setAddress("Kigali");
+		owner.setEmail(nationalId + "@example.com");
+		ownerController.registerOwner(owner, new BeanPropertyBindingResult(owner, "ownerDto"));
+		return jdbcTemplate.queryForObject("select id from vehicle_owner where national_id = ?", Long.class, nationalId);
+	}
+
+	private void registerPlate(String plateNumber) {
+		PlateNumberDto plate = new PlateNumberDto();
+		plate.setPlateNumber(plateNumber);
+		plate.setIssuedDate(LocalDate.of(2024, 1, 1));
+		plate.setInUse(true);
+		ownerController.registerPlate(ownerId, plate, new BeanPropertyBindingResult(plate, "plateNumberDto"));
+	}
+}
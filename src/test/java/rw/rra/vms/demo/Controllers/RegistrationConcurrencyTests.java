@@ -0,0 +1,160 @@
+package rw.rra.vms.demo.Controllers;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import rw.rra.vms.demo.dtos.PlateNumberDto;
+import rw.rra.vms.demo.dtos.SignupRequest;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fires the same registration from several threads at once: the unique constraints let exactly one through
+ * and every other attempt gets the 400 message for the key it collided on.
+ */
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class RegistrationConcurrencyTests {
+
+	private static final int THREADS = 8;
+
+	private static ExecutorService executor;
+
+	@Autowired
+	private OwnerController ownerController;
+
+	@Autowired
+	private AuthController authController;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void startExecutor() {
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterAll
+	static void stopExecutor() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void duplicateNationalIdsRegisterOneOwner() throws Exception {
+		List<ResponseEntity<?>> responses = inParallel(i -> () -> registerOwner("1199000000000001", "same-id" + i + "@example.com"));
+
+		assertOneCreated(responses, "National ID already exists");
+		assertThat(count("vehicle_owner", "national_id", "1199000000000001")).isEqualTo(1);
+	}
+
+	@Test
+	void duplicateEmailsRegisterOneOwnerIgnoringCase() throws Exception {
+		List<ResponseEntity<?>> responses = inParallel(i -> () ->
+				registerOwner("11990000000001%02d".formatted(i), i % 2 == 0 ? "same-email@example.com" : "Same-Email@example.com"));
+
+		assertOneCreated(responses, "Email already exists");
+		assertThat(jdbcTemplate.queryForObject("select count(*) from vehicle_owner where lower(email) = 'same-email@example.com'",
+				Integer.class)).isEqualTo(1);
+	}
+
+	@Test
+	void duplicatePlatesRegisterOnePlate() throws Exception {
+		registerOwner("1199000000000002", "plate-owner@example.com");
+		long ownerId = jdbcTemplate.queryForObject("select id from vehicle_owner where national_id = '1199000000000002'", Long.class);
+
+		List<ResponseEntity<?>> responses = inParallel(i -> () -> registerPlate(ownerId, "RCC001C"));
+
+		assertOneCreated(responses, "Plate number already exists");
+		assertThat(count("plate_number", "plate_number", "RCC001C")).isEqualTo(1);
+	}
+
+	@Test
+	void plateForMissingOwnerIsStillReportedAsOwnerNotFound() {
+		assertThatThrownBy(() -> registerPlate(Long.MAX_VALUE, "RCC002C")).hasMessage("Owner not found");
+	}
+
+	@Test
+	void duplicateSignupsRegisterOneUser() throws Exception {
+		List<ResponseEntity<?>> responses = inParallel(i -> () -> signup("1199000000000003", "user" + i + "@example.com"));
+
+		assertOneCreated(responses, "National ID already exists");
+		assertThat(count("users", "national_id", "1199000000000003")).isEqualTo(1);
+	}
+
+	private List<ResponseEntity<?>> inParallel(IntFunction<Callable<ResponseEntity<?>>> registration) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<ResponseEntity<?>>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			Callable<ResponseEntity<?>> call = registration.apply(i);
+			futures.add(executor.submit(() -> {
+				start.await();
+				return call.call();
+			}));
+		}
+		start.countDown();
+		List<ResponseEntity<?>> responses = new ArrayList<>();
+		for (Future<ResponseEntity<?>> future : futures) {
+			responses.add(future.get());
+		}
+		return responses;
+	}
+
+	private static void assertOneCreated(List<ResponseEntity<?>> responses, String duplicateMessage) {
+		assertThat(responses).filteredOn(response -> response.getStatusCode().is2xxSuccessful()).hasSize(1);
+		assertThat(responses).filteredOn(response -> response.getStatusCode().is4xxClientError())
+				.hasSize(THREADS - 1)
+				.allSatisfy(response -> assertThat(response.getBody()).isEqualTo(duplicateMessage));
+	}
+
+	private int count(String table, String column, String value) {
+		return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + column + " = ?", Integer.class, value);
+	}
+
+	private ResponseEntity<?> registerOwner(String nationalId, String email) {
+		VehicleOwnerDto owner = new VehicleOwnerDto();
+		owner.setName("Jane Doe");
+		owner.setNationalId(nationalId);
+		owner.setPhone("0788000000");
+		owner.setAddress("Kigali");
+		owner.setEmail(email);
+		return ownerController.registerOwner(owner, new BeanPropertyBindingResult(owner, "ownerDto"));
+	}
+
+	private ResponseEntity<?> registerPlate(long ownerId, String plateNumber) {
+		PlateNumberDto plate = new PlateNumberDto();
+		plate.setPlateNumber(plateNumber);
+		plate.setIssuedDate(LocalDate.of(2024, 1, 1));
+		plate.setInUse(true);
+		return ownerController.registerPlate(ownerId, plate, new BeanPropertyBindingResult(plate, "plateNumberDto"));
+	}
+
+	private ResponseEntity<?> signup(String nationalId, String email) {
+		SignupRequest request = new SignupRequest();
+		request.setName("Jane Doe");
+		request.setEmail(email);
+		request.setPhone("0788000000");
+		request.setNationalId(nationalId);
+		request.setPassword("password123");
+		request.setRole("STANDARD");
+		return authController.signup(request, new BeanPropertyBindingResult(request, "signupRequest"));
+	}
+}
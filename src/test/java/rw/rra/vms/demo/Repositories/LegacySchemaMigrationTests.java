@@ -0,0 +1,87 @@
+package rw.rra.vms.demo.Repositories;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Migrates a database laid out the way ddl-auto=update left it, with Hibernate's generated constraint names, and
+ * checks it ends up with the names the registrations recognise.
+ */
+class LegacySchemaMigrationTests {
+
+	private EmbeddedPostgres postgres;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createLegacySchema() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+		jdbcTemplate.execute("create sequence vehicle_owner_seq start with 1 increment by 50");
+		jdbcTemplate.execute("create table users (id bigint generated by default as identity, email varchar(255) not null, " +
+				"name varchar(255) not null, national_id varchar(255) not null, password varchar(255) not null, " +
+				"phone varchar(255) not null, role varchar(255) not null, primary key (id))");
+		jdbcTemplate.execute("create table vehicle_owner (id bigint not null, address varchar(255) not null, " +
+				"email varchar(255) not null, name varchar(255) not null, national_id varchar(255) not null, " +
+				"phone varchar(255) not null, primary key (id))");
+		jdbcTemplate.execute("create table plate_number (id bigint generated by default as identity, in_use boolean not null, " +
+				"issued_date date not null, plate_number varchar(255) not null, owner_id bigint not null, primary key (id))");
+		jdbcTemplate.execute("alter table if exists users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email)");
+		jdbcTemplate.execute("alter table if exists users add constraint UKd2jpfxxbq0by0qnbbm1hfqsbf unique (national_id)");
+		jdbcTemplate.execute("alter table if exists vehicle_owner add constraint UK_g1r3kt4fkqo1g4vha5dw0d2fq unique (email)");
+		jdbcTemplate.execute("alter table if exists vehicle_owner add constraint UK_7k2x0mc1nbydf3ekkd8p6mhyg unique (national_id)");
+		jdbcTemplate.execute("alter table if exists plate_number add constraint UK_p5f8un5vk3amqly5ky3jiy4b0 unique (plate_number)");
+		jdbcTemplate.execute("alter table if exists plate_number add constraint FK5hbfo5dfu0eqcdgjv5pbhwv8j " +
+				"foreign key (owner_id) references vehicle_owner");
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void hibernateConstraintNamesAreRenamed() {
+		Flyway.configure().dataSource(postgres.getPostgresDatabase())
+				.baselineOnMigrate(true).baselineVersion("0")
+				.load().migrate();
+
+		assertThat(jdbcTemplate.queryForList("select conname from pg_constraint where contype in ('u', 'f') " +
+				"and conrelid in ('users'::regclass, 'vehicle_owner'::regclass, 'plate_number'::regclass)", String.class))
+				.containsExactlyInAnyOrder("uk_users_email", "uk_users_national_id", "uk_vehicle_owner_email",
+						"uk_vehicle_owner_national_id", "uk_plate_number_plate_number", "fk_plate_number_owner");
+
+		jdbcTemplate.update("insert into vehicle_owner (id, name, national_id, phone, address, email) " +
+				"values (1, 'Jane Doe', '1199880012345678', '0788000000', 'Kigali', 'jane@example.com')");
+		DataIntegrityViolationException duplicate = catchThrowableOfType(DataIntegrityViolationException.class,
+				() -> jdbcTemplate.update("insert into vehicle_owner (id, name, national_id, phone, address, email) " +
+						"values (2, 'Jane Doe', '1199880012345678', '0788000000', 'Kigali', 'other@example.com')"));
+		assertThat(duplicate).hasMessageContaining("uk_vehicle_owner_national_id");
+	}
+
+	@Test
+	void emailsDifferingOnlyByCaseStopTheMigrationWithTheRowsToFix() {
+		jdbcTemplate.update("insert into vehicle_owner (id, name, national_id, phone, address, email) values " +
+				"(1, 'Jane Doe', '1199880012345678', '0788000000', 'Kigali', 'jane@example.com'), " +
+				"(2, 'Jane Doe', '1199880012345679', '0788000000', 'Kigali', 'Jane@Example.com'), " +
+				"(3, 'John Doe', '1199880012345670', '0788000000', 'Kigali', 'john@example.com')");
+
+		FlywayException failure = catchThrowableOfType(FlywayException.class, () -> Flyway.configure()
+				.dataSource(postgres.getPostgresDatabase())
+				.baselineOnMigrate(true).baselineVersion("0")
+				.load().migrate());
+
+		assertThat(failure).hasMessageContaining("differ only by case: vehicle_owner ids 1, 2 (jane@example.com, Jane@Example.com)");
+		assertThat(failure.getMessage()).doesNotContain("john@example.com");
+	}
+}
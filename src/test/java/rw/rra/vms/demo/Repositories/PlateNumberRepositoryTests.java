@@ -0,0 +1,84 @@
+package rw.rra.vms.demo.Repositories;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import rw.rra.vms.demo.Entities.PlateNumber;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.dtos.PlateNumberView;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class PlateNumberRepositoryTests {
+
+	@Autowired
+	private PlateNumberRepository plateNumberRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Long ownerId;
+
+	@BeforeEach
+	void setUp() {
+		VehicleOwner owner = new VehicleOwner();
+		owner.setName("Jane Doe");
+		owner.setNationalId("1199880012345678");
+		owner.setPhone("0788000000");
+		owner.setAddress("Kigali");
+		owner.setEmail("jane@example.com");
+		entityManager.persist(owner);
+		for (String plate : List.of("RAA001A", "RAA002B", "RAA003C")) {
+			PlateNumber plateNumber = new PlateNumber();
+			plateNumber.setOwner(owner);
+			plateNumber.setPlateNumber(plate);
+			plateNumber.setIssuedDate(LocalDate.of(2024, 1, 1));
+			plateNumber.setInUse(true);
+			entityManager.persist(plateNumber);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		ownerId = owner.getId();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void plateViewsByOwnerIdRunOneQueryWithoutLoadingTheOwner() {
+		List<PlateNumberView> plates = plateNumberRepository.findViewsByOwnerId(ownerId);
+
+		assertThat(plates).extracting(PlateNumberView::plateNumber).containsExactly("RAA001A", "RAA002B", "RAA003C");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void plateEntitiesDoNotFetchTheirOwner() {
+		VehicleOwner owner = entityManager.getEntityManager().getReference(VehicleOwner.class, ownerId);
+
+		List<PlateNumber> plates = plateNumberRepository.findByOwner(owner);
+
+		assertThat(plates).hasSize(3);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(3);
+	}
+}
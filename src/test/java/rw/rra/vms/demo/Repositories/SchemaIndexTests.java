@@ -0,0 +1,79 @@
+package rw.rra.vms.demo.Repositories;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the Flyway schema: the lookups behind the repositories are planned on their indexes and
+ * emails are unique regardless of case. Sequential scans are disabled so the planner picks an index
+ * whenever one applies, independent of the (tiny) table sizes.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class SchemaIndexTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("insert into vehicle_owner (id, name, national_id, phone, address, email) " +
+				"values (1, 'Jane Doe', '1199880012345678', '0788000000', 'Kigali', 'Jane@Example.com')");
+		jdbcTemplate.update("insert into plate_number (owner_id, plate_number, issued_date, in_use) " +
+				"values (1, 'RAA001A', date '2024-01-01', true), (1, 'RAA002B', date '2024-01-01', false)");
+		jdbcTemplate.update("insert into users (name, email, phone, national_id, password, role) " +
+				"values ('Admin', 'Admin@rra.gov.rw', '0788000001', '1199880012345679', 'x', 'ADMIN')");
+		jdbcTemplate.execute("analyze");
+		jdbcTemplate.execute("set local enable_seqscan = off");
+	}
+
+	@Test
+	void platesByOwnerUseTheOwnerIndex() {
+		assertThat(explain("select * from plate_number where owner_id = 1")).contains("idx_plate_number_owner_id");
+	}
+
+	@Test
+	void ownerByPhoneUsesThePhoneIndex() {
+		assertThat(explain("select * from vehicle_owner where phone = '0788000000'")).contains("idx_vehicle_owner_phone");
+	}
+
+	@Test
+	void platesInUseUseThePartialIndex() {
+		assertThat(explain("select count(*) from plate_number where in_use")).contains("idx_plate_number_in_use");
+	}
+
+	@Test
+	void emailLookupsUseTheCaseInsensitiveIndexes() {
+		assertThat(explain("select * from vehicle_owner where lower(email) = lower('jane@example.com')"))
+				.contains("ux_vehicle_owner_email_lower");
+		assertThat(explain("select * from users where lower(email) = lower('admin@rra.gov.rw')"))
+				.contains("ux_users_email_lower");
+	}
+
+	@Test
+	void emailsDifferingOnlyInCaseAreRejected() {
+		assertThatThrownBy(() -> jdbcTemplate.update(
+				"insert into vehicle_owner (id, name, national_id, phone, address, email) " +
+						"values (2, 'John Doe', '1199880012345670', '0788000002', 'Kigali', 'jane@example.COM')"))
+				.isInstanceOf(DataIntegrityViolationException.class)
+				.hasMessageContaining("ux_vehicle_owner_email_lower");
+	}
+
+	private String explain(String sql) {
+		List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class);
+		return String.join("\n", plan);
+	}
+}
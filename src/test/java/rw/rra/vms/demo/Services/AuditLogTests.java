@@ -0,0 +1,36 @@
+package rw.rra.vms.demo.Services;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class AuditLogTests {
+
+	@Autowired
+	private AuditLog auditLog;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void anOversizedKeyIsCutToItsColumnAndDoesNotFailTheBatch() {
+		String key = "audit-log-test-".repeat(20);
+		auditLog.invalid(RegistrationMetrics.OWNER, key, List.of("nationalId"));
+		auditLog.created(RegistrationMetrics.OWNER, "audit-log-test");
+
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(jdbcTemplate.queryForList(
+				"select entity_key from audit_event where entity_key like 'audit-log-test%'",
+				String.class)).containsExactlyInAnyOrder("audit-log-test", key.substring(0, 255)));
+	}
+}
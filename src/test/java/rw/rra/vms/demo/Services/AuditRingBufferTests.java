@@ -0,0 +1,84 @@
+package rw.rra.vms.demo.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTests {
+
+	@Test
+	void rejectsOffersWhenFullAndAcceptsThemAgainOnceDrained() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.offer(i)).isTrue();
+		}
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.size()).isEqualTo(4);
+
+		assertThat(buffer.poll()).isEqualTo(0);
+		assertThat(buffer.offer(4)).isTrue();
+		List<Integer> drained = new ArrayList<>();
+		Integer element;
+		while ((element = buffer.poll()) != null) {
+			drained.add(element);
+		}
+		assertThat(drained).containsExactly(1, 2, 3, 4);
+		assertThat(buffer.size()).isZero();
+	}
+
+	@Test
+	void capacityIsRoundedUpToAPowerOfTwo() {
+		assertThat(new AuditRingBuffer<>(1000).capacity()).isEqualTo(1024);
+		assertThat(new AuditRingBuffer<>(1024).capacity()).isEqualTo(1024);
+	}
+
+	@Test
+	void concurrentProducersDeliverEveryElementExactlyOnce() throws InterruptedException {
+		int producers = 4;
+		int perProducer = 100_000;
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(256);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int offset = p * perProducer;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(offset + i)) {
+						Thread.onSpinWait();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		start.countDown();
+		BitSet seen = new BitSet(producers * perProducer);
+		int received = 0;
+		while (received < producers * perProducer) {
+			Integer element = buffer.poll();
+			if (element == null) {
+				Thread.onSpinWait();
+				continue;
+			}
+			assertThat(seen.get(element)).isFalse();
+			seen.set(element);
+			received++;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertThat(seen.cardinality()).isEqualTo(producers * perProducer);
+		assertThat(buffer.poll()).isNull();
+	}
+}
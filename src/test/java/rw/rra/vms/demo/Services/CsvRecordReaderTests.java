@@ -0,0 +1,50 @@
+package rw.rra.vms.demo.Services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTests {
+
+	@Test
+	void readsPlainAndQuotedFieldsWithTheirLineNumbers() throws IOException {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader(
+				"\uFEFFname,address\r\n" +
+				"Jane,\"Kigali, \"\"Nyarugenge\"\"\"\r\n" +
+				"John,\"two\nlines\"\n" +
+				",\n" +
+				"last"));
+
+		assertThat(reader.next()).containsExactly("name", "address");
+		assertThat(reader.recordLine()).isEqualTo(1);
+		assertThat(reader.next()).containsExactly("Jane", "Kigali, \"Nyarugenge\"");
+		assertThat(reader.recordLine()).isEqualTo(2);
+		assertThat(reader.next()).containsExactly("John", "two\nlines");
+		assertThat(reader.recordLine()).isEqualTo(3);
+		assertThat(reader.next()).containsExactly("", "");
+		assertThat(reader.recordLine()).isEqualTo(5);
+		assertThat(reader.next()).containsExactly("last");
+		assertThat(reader.next()).isNull();
+	}
+
+	@Test
+	void readsRecordsLongerThanItsBuffer() throws IOException {
+		String longValue = "x".repeat(20_000);
+		CsvRecordReader reader = new CsvRecordReader(new StringReader(longValue + ",\"" + longValue + "\"\n"));
+
+		assertThat(reader.next()).containsExactly(longValue, longValue);
+		assertThat(reader.next()).isNull();
+	}
+
+	@Test
+	void rejectsAnUnterminatedQuotedField() throws IOException {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n\"open,c\n"));
+
+		assertThat(reader.next()).containsExactly("a", "b");
+		assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageContaining("line 2");
+	}
+}
@@ -0,0 +1,87 @@
+package rw.rra.vms.demo.Services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.OwnerBatchSearchRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OwnerBatchSearchServiceTests {
+
+	private final VehicleOwnerRepository ownerRepository = mock(VehicleOwnerRepository.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final OwnerBatchSearchService searchService = new OwnerBatchSearchService(ownerRepository, objectMapper,
+			mock(PlatformTransactionManager.class), 2);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void valuesAreQueriedInChunksOfTheInClauseLimit() throws IOException {
+		when(ownerRepository.findByNationalIdIn(any())).thenReturn(List.of());
+
+		search(List.of("1", "2", "3", "4", "5"), List.of());
+
+		ArgumentCaptor<Collection<String>> chunks = ArgumentCaptor.forClass(Collection.class);
+		verify(ownerRepository, times(3)).findByNationalIdIn(chunks.capture());
+		assertThat(chunks.getAllValues()).extracting(List::copyOf)
+				.containsExactly(List.of("1", "2"), List.of("3", "4"), List.of("5"));
+	}
+
+	@Test
+	void everyValueIsAnsweredInRequestOrderWithMissingOnesNotFound() throws IOException {
+		when(ownerRepository.findByNationalIdIn(any())).thenAnswer(invocation -> {
+			Collection<String> chunk = invocation.getArgument(0);
+			return chunk.contains("1199880000000003") ? List.of(owner(3L, "1199880000000003", "0788000003")) : List.of();
+		});
+		when(ownerRepository.findByPhoneIn(any())).thenReturn(List.of(
+				owner(9L, "1199880000000009", "0788000001"),
+				owner(4L, "1199880000000004", "0788000001")));
+
+		JsonNode results = search(List.of("1199880000000001", "1199880000000002", "1199880000000003"), List.of("0788000001"));
+
+		assertThat(results).hasSize(4);
+		assertThat(results.get(0).get("nationalId").asText()).isEqualTo("1199880000000001");
+		assertThat(results.get(0).get("found").asBoolean()).isFalse();
+		assertThat(results.get(0).has("owner")).isFalse();
+		assertThat(results.get(1).get("found").asBoolean()).isFalse();
+		assertThat(results.get(2).get("found").asBoolean()).isTrue();
+		assertThat(results.get(2).get("owner").get("nationalId").asText()).isEqualTo("1199880000000003");
+		// A shared phone resolves to the earliest registered owner
+		assertThat(results.get(3).get("phone").asText()).isEqualTo("0788000001");
+		assertThat(results.get(3).get("owner").get("nationalId").asText()).isEqualTo("1199880000000004");
+	}
+
+	private JsonNode search(List<String> nationalIds, List<String> phones) throws IOException {
+		OwnerBatchSearchRequest request = new OwnerBatchSearchRequest();
+		request.setNationalIds(nationalIds);
+		request.setPhones(phones);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		searchService.search(request, out);
+		return objectMapper.readTree(out.toByteArray());
+	}
+
+	private static VehicleOwner owner(Long id, String nationalId, String phone) {
+		VehicleOwner owner = new VehicleOwner();
+		owner.setId(id);
+		owner.setName("Jane Doe");
+		owner.setNationalId(nationalId);
+		owner.setPhone(phone);
+		owner.setAddress("Kigali");
+		owner.setEmail("jane@example.com");
+		return owner;
+	}
+}
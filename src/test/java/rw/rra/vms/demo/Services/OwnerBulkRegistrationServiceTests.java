@@ -0,0 +1,54 @@
+package rw.rra.vms.demo.Services;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import rw.rra.vms.demo.dtos.BulkRegistrationReport;
+import rw.rra.vms.demo.dtos.BulkRegistrationResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class OwnerBulkRegistrationServiceTests {
+
+	@Autowired
+	private OwnerBulkRegistrationService bulkRegistrationService;
+
+	@Test
+	void emailsAreDuplicatesRegardlessOfCase() throws IOException {
+		register(owner("1199000000000601", "bulk-owner@example.com"));
+
+		BulkRegistrationReport report = register(
+				owner("1199000000000602", "Bulk-Owner@Example.com"),
+				owner("1199000000000603", "bulk-chunk@example.com"),
+				owner("1199000000000604", "BULK-CHUNK@example.com"));
+
+		assertThat(report.getCreated()).isEqualTo(1);
+		assertThat(report.getDuplicates()).isEqualTo(2);
+		// Only the rows that were not created are listed
+		assertThat(report.getResults()).extracting(BulkRegistrationResult::getIndex, BulkRegistrationResult::getStatus,
+						BulkRegistrationResult::getMessage)
+				.containsExactly(
+						tuple(0, BulkRegistrationResult.Status.DUPLICATE, "Email already exists"),
+						tuple(2, BulkRegistrationResult.Status.DUPLICATE, "Email already exists"));
+	}
+
+	private BulkRegistrationReport register(String... owners) throws IOException {
+		String body = "[" + String.join(",", owners) + "]";
+		return bulkRegistrationService.register(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String owner(String nationalId, String email) {
+		return """
+				{"name": "Jane Doe", "nationalId": "%s", "phone": "0788000000", "address": "Kigali", "email": "%s"}"""
+				.formatted(nationalId, email);
+	}
+}
@@ -0,0 +1,92 @@
+package rw.rra.vms.demo.Services;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import rw.rra.vms.demo.Entities.PlateNumber;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.dtos.OwnerSearchHit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import(OwnerFuzzySearchService.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class OwnerFuzzySearchServiceTests {
+
+	@Autowired
+	private OwnerFuzzySearchService searchService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@BeforeEach
+	void setUp() {
+		owner("Jean Mukamana", "1199880000000001", "0788111111", "jean.m@example.com");
+		owner("Diane Uwase", "1199880000000002", "0788222222", "diane@example.com");
+		owner("Alice Diane", "1199880000000003", "0788333333", "alice@example.com");
+		VehicleOwner eric = owner("Eric Habimana", "1199880000000004", "0788444444", "habimana.eric@example.com");
+		PlateNumber plate = new PlateNumber();
+		plate.setOwner(eric);
+		plate.setPlateNumber("RAC123B");
+		plate.setIssuedDate(LocalDate.of(2024, 1, 1));
+		plate.setInUse(true);
+		entityManager.persist(plate);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void aNameWithATypoIsFound() {
+		List<OwnerSearchHit> hits = searchService.search("Mukamama", 10);
+
+		assertThat(hits).first().extracting(OwnerSearchHit::name, OwnerSearchHit::matchedOn)
+				.containsExactly("Jean Mukamana", "name");
+	}
+
+	@Test
+	void valuesStartingWithTheTermRankFirst() {
+		List<OwnerSearchHit> hits = searchService.search("diane", 10);
+
+		assertThat(hits).extracting(OwnerSearchHit::name, OwnerSearchHit::score).startsWith(
+				tuple("Diane Uwase", 2.0),
+				tuple("Alice Diane", 1.0));
+	}
+
+	@Test
+	void ownersAreFoundByPlateNumber() {
+		List<OwnerSearchHit> hits = searchService.search("RAC123", 10);
+
+		assertThat(hits).extracting(OwnerSearchHit::name, OwnerSearchHit::matchedOn, OwnerSearchHit::matchedValue)
+				.containsExactly(tuple("Eric Habimana", "plate", "RAC123B"));
+	}
+
+	@Test
+	void anOwnerMatchedOnSeveralColumnsIsReturnedOnceWithItsBestMatch() {
+		List<OwnerSearchHit> hits = searchService.search("habimana", 10);
+
+		assertThat(hits).extracting(OwnerSearchHit::name, OwnerSearchHit::matchedOn, OwnerSearchHit::matchedValue)
+				.containsExactly(tuple("Eric Habimana", "email", "habimana.eric@example.com"));
+	}
+
+	private VehicleOwner owner(String name, String nationalId, String phone, String email) {
+		VehicleOwner owner = new VehicleOwner();
+		owner.setName(name);
+		owner.setNationalId(nationalId);
+		owner.setPhone(phone);
+		owner.setAddress("Kigali");
+		owner.setEmail(email);
+		return entityManager.persist(owner);
+	}
+}
@@ -0,0 +1,140 @@
+package rw.rra.vms.demo.Services;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.validation.BeanPropertyBindingResult;
+import rw.rra.vms.demo.Controllers.OwnerController;
+import rw.rra.vms.demo.dtos.ImportJobStatus;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Imports into a database of its own (the properties give the test its own context), so the owner id sequence
+ * has never been used when the import draws from it.
+ */
+@SpringBootTest(properties = {"owners.import.chunk-size=25", "owners.import.node=node-a"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class OwnerImportServiceTests {
+
+	private static final int OWNERS = 60;
+
+	@Autowired
+	private OwnerImportService importService;
+
+	@Autowired
+	private OwnerController ownerController;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoSpyBean
+	private RegistrationMetrics registrationMetrics;
+
+	@Value("${owners.import.directory}")
+	private Path directory;
+
+	@Test
+	void aRestartResumesOnlyTheJobsOfItsOwnNode() {
+		long otherNodes = insertJob("node-b");
+		long unclaimed = insertJob(null);
+		jdbcTemplate.update("insert into owner_import_row (job_id, line_no) values (?, 2)", otherNodes);
+
+		importService.resumeUnfinished();
+
+		assertThat(jdbcTemplate.queryForMap("select status, node from owner_import_job where id = ?", otherNodes))
+				.containsEntry("status", "LOADING").containsEntry("node", "node-b");
+		assertThat(jdbcTemplate.queryForObject("select count(*) from owner_import_row where job_id = ?", Integer.class, otherNodes))
+				.isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select node from owner_import_job where id = ?", String.class, unclaimed))
+				.isEqualTo("node-a");
+		// Its upload was never stored, so the claimed job fails, on this node
+		await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+				assertThat(importService.status(unclaimed).orElseThrow().status()).isEqualTo("FAILED"));
+	}
+
+	@Test
+	void importIntoAnEmptyDatabaseGivesOwnersIdsHibernateDoesNotReuse() throws Exception {
+		assertThat(jdbcTemplate.queryForObject("select count(*) from vehicle_owner", Integer.class)).isZero();
+
+		StringBuilder csv = new StringBuilder("name,nationalId,phone,address,email\n");
+		for (int i = 0; i < OWNERS; i++) {
+			csv.append("Jane Doe,11990000000007%02d,0788000000,Kigali,import%d@example.com\n".formatted(i, i));
+		}
+		ImportJobStatus job = importService.submit(new MockMultipartFile("file", "owners.csv", "text/csv",
+				csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+		await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+				assertThat(importService.status(job.id()).orElseThrow().status()).isIn("COMPLETED", "FAILED"));
+		ImportJobStatus completed = importService.status(job.id()).orElseThrow();
+		assertThat(completed.status()).isEqualTo("COMPLETED");
+		assertThat(completed.ownersCreated()).isEqualTo(OWNERS);
+		assertThat(jdbcTemplate.queryForObject("select min(id) from vehicle_owner", Long.class)).isPositive();
+
+		VehicleOwnerDto owner = new VehicleOwnerDto();
+		owner.setName("Jane Doe");
+		owner.setNationalId("1199000000000799");
+		owner.setPhone("0788000000");
+		owner.setAddress("Kigali");
+		owner.setEmail("registered@example.com");
+		assertThat(ownerController.registerOwner(owner, new BeanPropertyBindingResult(owner, "ownerDto"))
+				.getStatusCode().is2xxSuccessful()).isTrue();
+		assertThat(jdbcTemplate.queryForObject("select count(distinct id) from vehicle_owner", Integer.class))
+				.isEqualTo(OWNERS + 1);
+	}
+
+	@Test
+	void rejectedRowsAreDeletedOnceTheirRetentionIsOver() throws Exception {
+		Path expired = Files.writeString(directory.resolve("990001-rejected.csv"), "lineNo,reason\n");
+		Files.setLastModifiedTime(expired, FileTime.from(Instant.now().minus(Duration.ofDays(8))));
+		Path recent = Files.writeString(directory.resolve("990002-rejected.csv"), "lineNo,reason\n");
+
+		importService.deleteExpiredRejectedRows();
+
+		assertThat(importService.rejectedRows(990001)).isEmpty();
+		assertThat(importService.rejectedRows(990002)).contains(recent);
+		Files.delete(recent);
+	}
+
+	@Test
+	void aJobStaysCompletedWhenWhatFollowsItsCommitFails() throws Exception {
+		// Only the one job of this test creates no owner (its only row is invalid, so the database stays empty)
+		doThrow(new IllegalStateException("metrics unavailable")).when(registrationMetrics).created(RegistrationMetrics.OWNER, 0);
+
+		ImportJobStatus job = importService.submit(new MockMultipartFile("file", "owners.csv", "text/csv", """
+				name,nationalId,phone,address,email
+				Jane Doe,123,0788000000,Kigali,invalid@example.com
+				""".getBytes(StandardCharsets.UTF_8)));
+
+		await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+				verify(registrationMetrics).created(RegistrationMetrics.OWNER, 0));
+		// The failure is handled after the call; give it the time to (wrongly) mark the job
+		Thread.sleep(500);
+		ImportJobStatus completed = importService.status(job.id()).orElseThrow();
+		assertThat(completed.status()).isEqualTo("COMPLETED");
+		assertThat(completed.rowsRejected()).isEqualTo(1);
+	}
+
+	private long insertJob(String node) {
+		return jdbcTemplate.queryForObject("insert into owner_import_job (file_name, file_size, status, rows_read, node, " +
+				"created_by, created_at, updated_at) values ('owners.csv', 100, 'LOADING', 1, ?, 'admin', now(), now()) " +
+				"returning id", Long.class, node);
+	}
+}
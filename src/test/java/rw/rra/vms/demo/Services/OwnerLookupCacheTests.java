@@ -0,0 +1,119 @@
+package rw.rra.vms.demo.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import rw.rra.vms.demo.Entities.VehicleOwner;
+import rw.rra.vms.demo.Repositories.VehicleOwnerRepository;
+import rw.rra.vms.demo.dtos.VehicleOwnerDto;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OwnerLookupCacheTests {
+
+	private final VehicleOwnerRepository ownerRepository = mock(VehicleOwnerRepository.class);
+	private OwnerLookupCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new OwnerLookupCache(ownerRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+				1000, Duration.ofMinutes(10), Duration.ofSeconds(30));
+	}
+
+	@Test
+	void evictingAnUpdatedOwnerDropsItsEntriesUnderTheOldValues() {
+		VehicleOwner owner = owner(7L, "1199880012345678", "0788000000");
+		when(ownerRepository.findByNationalId("1199880012345678")).thenReturn(Optional.of(owner));
+		when(ownerRepository.findByPhone("0788000000")).thenReturn(Optional.of(owner));
+		assertThat(cache.findByNationalId("1199880012345678")).isPresent();
+		assertThat(cache.findByPhone("0788000000")).isPresent();
+
+		VehicleOwner updated = owner(7L, "1199880012345679", "0788000001");
+		when(ownerRepository.findByNationalId("1199880012345678")).thenReturn(Optional.empty());
+		when(ownerRepository.findByPhone("0788000000")).thenReturn(Optional.empty());
+		cache.evict(updated);
+
+		assertThat(cache.findByNationalId("1199880012345678")).isEmpty();
+		assertThat(cache.findByPhone("0788000000")).isEmpty();
+	}
+
+	@Test
+	void evictingAnotherOwnerKeepsTheEntries() {
+		when(ownerRepository.findByNationalId("1199880012345678")).thenReturn(Optional.of(owner(7L, "1199880012345678", "0788000000")));
+		assertThat(cache.findByNationalId("1199880012345678")).map(VehicleOwnerDto::getNationalId).contains("1199880012345678");
+
+		cache.evict(owner(8L, "1199880012345670", "0788000002"));
+
+		assertThat(cache.findByNationalId("1199880012345678")).isPresent();
+		verify(ownerRepository, times(1)).findByNationalId("1199880012345678");
+	}
+
+	@Test
+	void aPhoneTakenOverByAnotherOwnerIsNotEvictedWithTheFormerOne() {
+		VehicleOwner former = owner(7L, "1199880012345678", "0788000000");
+		when(ownerRepository.findByPhone("0788000000")).thenReturn(Optional.of(former));
+		cache.findByPhone("0788000000");
+		VehicleOwner current = owner(8L, "1199880012345670", "0788000000");
+		when(ownerRepository.findByPhone("0788000000")).thenReturn(Optional.of(current));
+		cache.evict(current);
+		assertThat(cache.findByPhone("0788000000")).map(VehicleOwnerDto::getNationalId).contains("1199880012345670");
+
+		cache.evict(owner(7L, "1199880012345678", "0788000003"));
+
+		assertThat(cache.findByPhone("0788000000")).map(VehicleOwnerDto::getNationalId).contains("1199880012345670");
+		verify(ownerRepository, times(2)).findByPhone("0788000000");
+	}
+
+	@Test
+	void aLoadOverlappingAnEvictionOfTheOwnerItFoundIsNotCached() {
+		when(ownerRepository.findByNationalId("1199880012345678")).thenAnswer(invocation -> {
+			// The owner's national ID changes while the old one is being read
+			cache.evict(owner(7L, "1199880012345679", "0788000000"));
+			return Optional.of(owner(7L, "1199880012345678", "0788000000"));
+		});
+
+		cache.findByNationalId("1199880012345678");
+		cache.findByNationalId("1199880012345678");
+
+		verify(ownerRepository, times(2)).findByNationalId("1199880012345678");
+	}
+
+	@Test
+	void aLoadOverlappingAnotherOwnersEvictionIsCached() {
+		when(ownerRepository.findByNationalId("1199880012345678")).thenAnswer(invocation -> {
+			cache.evict(owner(8L, "1199880012345670", "0788000002"));
+			return Optional.of(owner(7L, "1199880012345678", "0788000000"));
+		});
+		when(ownerRepository.findByPhone("0788000001")).thenAnswer(invocation -> {
+			cache.evict(owner(8L, "1199880012345670", "0788000002"));
+			return Optional.empty();
+		});
+
+		cache.findByNationalId("1199880012345678");
+		cache.findByNationalId("1199880012345678");
+		cache.findByPhone("0788000001");
+		cache.findByPhone("0788000001");
+
+		verify(ownerRepository, times(1)).findByNationalId("1199880012345678");
+		verify(ownerRepository, times(1)).findByPhone("0788000001");
+	}
+
+	private static VehicleOwner owner(Long id, String nationalId, String phone) {
+		VehicleOwner owner = new VehicleOwner();
+		owner.setId(id);
+		owner.setName("Jane Doe");
+		owner.setNationalId(nationalId);
+		owner.setPhone(phone);
+		owner.setAddress("Kigali");
+		owner.setEmail("jane@example.com");
+		return owner;
+	}
+}
@@ -0,0 +1,81 @@
+package rw.rra.vms.demo.Services;
+
+import org.junit.jupiter.api.Test;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlateIndexTableTests {
+
+	private static final LocalDate ISSUED = LocalDate.of(2024, 1, 1);
+
+	@Test
+	void storesOwnerDateAndInUseFlag() {
+		PlateIndex.Table table = new PlateIndex.Table(16);
+		table.put(PlateIndex.Table.encode("RAA123A"), 4_000_000_000L, ISSUED, true, true);
+		table.put(PlateIndex.Table.encode("RAA123B"), 7, LocalDate.of(1900, 1, 1), false, true);
+
+		assertThat(table.get(PlateIndex.Table.encode("RAA123A"), "RAA123A"))
+				.isEqualTo(new PlateOwnerView("RAA123A", 4_000_000_000L, ISSUED, true));
+		assertThat(table.get(PlateIndex.Table.encode("RAA123B"), "RAA123B"))
+				.isEqualTo(new PlateOwnerView("RAA123B", 7L, LocalDate.of(1900, 1, 1), false));
+		assertThat(table.get(PlateIndex.Table.encode("RAA123C"), "RAA123C")).isNull();
+	}
+
+	@Test
+	void replacesOnlyWhenAsked() {
+		PlateIndex.Table table = new PlateIndex.Table(16);
+		long code = PlateIndex.Table.encode("RAB001");
+		table.put(code, 1, ISSUED, true, true);
+		table.put(code, 2, ISSUED, false, false);
+		assertThat(table.get(code, "RAB001").ownerId()).isEqualTo(1L);
+
+		table.put(code, 2, ISSUED, false, true);
+		assertThat(table.get(code, "RAB001")).isEqualTo(new PlateOwnerView("RAB001", 2L, ISSUED, false));
+		assertThat(table.size()).isEqualTo(1);
+	}
+
+	@Test
+	void encodesOnlyShortAlphanumericPlates() {
+		assertThat(PlateIndex.Table.encode("ZZZZZZZZZZ")).isPositive();
+		assertThat(PlateIndex.Table.encode("A")).isNotEqualTo(PlateIndex.Table.encode("0A"));
+		assertThat(PlateIndex.Table.encode("ZZZZZZZZZZZ")).isZero();
+		assertThat(PlateIndex.Table.encode("raa123a")).isZero();
+		assertThat(PlateIndex.Table.encode("")).isZero();
+		assertThat(PlateIndex.Table.fits(1L, LocalDate.of(2080, 1, 1))).isFalse();
+		assertThat(PlateIndex.Table.fits(1L << 32, ISSUED)).isFalse();
+	}
+
+	@Test
+	void matchesAMapThroughInsertsRemovalsAndResizes() {
+		Random random = new Random(42);
+		PlateIndex.Table table = new PlateIndex.Table(8);
+		Map<String, Long> expected = new HashMap<>();
+		for (int i = 0; i < 50_000; i++) {
+			String plate = "RA" + random.nextInt(20_000);
+			long code = PlateIndex.Table.encode(plate);
+			if (random.nextInt(3) == 0) {
+				table.remove(code);
+				expected.remove(plate);
+			} else {
+				if (table.isFull(0.75)) {
+					table = table.resized(PlateIndex.Table.slotsFor(table.size() + table.size() / 2, 0.75));
+				}
+				table.put(code, i, ISSUED, true, true);
+				expected.put(plate, (long) i);
+			}
+		}
+
+		assertThat(table.size()).isEqualTo(expected.size());
+		for (int n = 0; n < 20_000; n++) {
+			String plate = "RA" + n;
+			PlateOwnerView found = table.get(PlateIndex.Table.encode(plate), plate);
+			assertThat(found == null ? null : found.ownerId()).as(plate).isEqualTo(expected.get(plate));
+		}
+	}
+}
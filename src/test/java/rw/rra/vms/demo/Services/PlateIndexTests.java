@@ -0,0 +1,87 @@
+package rw.rra.vms.demo.Services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import rw.rra.vms.demo.Repositories.PlateNumberRepository;
+import rw.rra.vms.demo.dtos.PlateOwnerView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The index of one node, with the plates other nodes write appearing only in the (mocked) table.
+ */
+class PlateIndexTests {
+
+	private static final LocalDate ISSUED = LocalDate.of(2024, 1, 1);
+
+	private final PlateNumberRepository plateNumberRepository = mock(PlateNumberRepository.class);
+	private PlateIndex index;
+
+	@BeforeEach
+	void build() {
+		when(plateNumberRepository.streamAllOwnerViews()).thenReturn(Stream.of(new PlateOwnerView("RAA001A", 1L, ISSUED, true)));
+		index = new PlateIndex(plateNumberRepository, mock(PlatformTransactionManager.class), 0.75, 16, Duration.ofMinutes(1),
+				Duration.ofMinutes(1), 100);
+		index.build();
+	}
+
+	@Test
+	void aPlateRegisteredOnAnotherNodeIsFoundInTheTableAndKept() {
+		PlateOwnerView elsewhere = new PlateOwnerView("RAA002A", 2L, ISSUED, true);
+		when(plateNumberRepository.findOwnerViewByPlateNumber("RAA002A")).thenReturn(Optional.of(elsewhere));
+
+		assertThat(index.find("RAA002A")).contains(elsewhere);
+		assertThat(index.find("RAA002A")).contains(elsewhere);
+		verify(plateNumberRepository, times(1)).findOwnerViewByPlateNumber("RAA002A");
+	}
+
+	@Test
+	void batchLookupsQueryOnlyTheMissingPlates() {
+		PlateOwnerView elsewhere = new PlateOwnerView("RAA002A", 2L, ISSUED, true);
+		when(plateNumberRepository.findOwnerViewsByPlateNumberIn(List.of("RAA002A", "RAA003A"))).thenReturn(List.of(elsewhere));
+
+		assertThat(index.findAll(List.of("RAA002A", "RAA001A", "RAA003A"))).containsExactly(
+				Map.entry("RAA002A", elsewhere),
+				Map.entry("RAA001A", new PlateOwnerView("RAA001A", 1L, ISSUED, true)));
+		assertThat(index.find("RAA002A")).contains(elsewhere);
+		verify(plateNumberRepository, times(0)).findOwnerViewByPlateNumber(any());
+	}
+
+	@Test
+	void anUnregisteredPlateIsLookedUpOnceUntilItIsWritten() {
+		assertThat(index.find("RAA009A")).isEmpty();
+		assertThat(index.find("RAA009A")).isEmpty();
+		assertThat(index.findAll(List.of("RAA009A", "RAA001A"))).containsOnlyKeys("RAA001A");
+		verify(plateNumberRepository, times(1)).findOwnerViewByPlateNumber("RAA009A");
+		verify(plateNumberRepository, times(0)).findOwnerViewsByPlateNumberIn(any());
+
+		PlateOwnerView registered = new PlateOwnerView("RAA009A", 9L, ISSUED, true);
+		index.put(registered);
+
+		assertThat(index.find("RAA009A")).contains(registered);
+	}
+
+	@Test
+	void refreshPicksUpPlatesChangedOnAnotherNode() {
+		PlateOwnerView changed = new PlateOwnerView("RAA001A", 1L, ISSUED, false);
+		when(plateNumberRepository.streamOwnerViewsUpdatedSince(any(Instant.class))).thenReturn(Stream.of(changed));
+
+		index.refresh();
+
+		assertThat(index.find("RAA001A")).contains(changed);
+	}
+}